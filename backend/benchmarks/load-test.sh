@@ -0,0 +1,40 @@
+#!/bin/sh
+# Runs LoadTest against the backend started once on platform threads and once on virtual
+# threads. Needs Java 21, a running Postgres (docker compose up postgres) and, for 10k
+# clients, a raised open-file limit (ulimit -n 65536). Results go to load-test-results.ndjson, each
+# line tagged with the Java version, core count and commit it was measured with.
+set -e
+
+cd "$(dirname "$0")"
+CLIENTS=${CLIENTS:-1000,10000}
+DURATION=${DURATION:-30s}
+LOAD_PATH=${LOAD_PATH:-/api/users/me}
+APP_JAR=$(ls ../target/*-exec.jar)
+
+# On Java 17 spring.threads.virtual.enabled is ignored, so both runs would use platform threads
+JAVA_VERSION=$(java -XshowSettings:properties -version 2>&1 | sed -n 's/^ *java.version = //p')
+if [ "${JAVA_VERSION%%.*}" -lt 21 ]; then
+    echo "load-test.sh needs Java 21 or later, found $JAVA_VERSION" >&2
+    exit 1
+fi
+CPUS=$(getconf _NPROCESSORS_ONLN)
+COMMIT=$(git rev-parse --short HEAD 2>/dev/null || echo unknown)
+
+: > load-test-results.ndjson
+for virtual in false true; do
+    mode=platform
+    [ "$virtual" = true ] && mode=virtual
+
+    java -jar "$APP_JAR" --spring.threads.virtual.enabled=$virtual > "backend-$mode.log" 2>&1 &
+    app=$!
+    trap 'kill $app 2>/dev/null' EXIT
+    until curl -sf http://localhost:8080/api/test/all > /dev/null; do sleep 1; done
+
+    java -cp target/benchmarks.jar com.example.backend.benchmarks.LoadTest \
+        --mode=$mode --clients="$CLIENTS" --duration="$DURATION" --path="$LOAD_PATH" \
+        --java="$JAVA_VERSION" --cpus="$CPUS" --commit="$COMMIT" \
+        | tee -a load-test-results.ndjson
+
+    kill $app
+    wait $app 2>/dev/null || true
+done
@@ -0,0 +1,79 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.entity.Role;
+import com.example.backend.entity.User;
+import com.example.backend.security.JwtUtils;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Properties;
+
+/**
+ * Builds backend components outside of Spring, configured from the backend's own
+ * application.properties so the numbers reflect the deployed settings.
+ */
+final class Fixtures {
+
+    private static final Properties PROPERTIES = load();
+
+    private Fixtures() {
+    }
+
+    static String property(String name, String defaultValue) {
+        return PROPERTIES.getProperty(name, defaultValue);
+    }
+
+    static JwtUtils jwtUtils(boolean stateless) {
+        JwtUtils jwtUtils = new JwtUtils();
+        setField(jwtUtils, "secret", property("jwt.secret", null));
+        setField(jwtUtils, "expiration", Integer.parseInt(property("jwt.expiration", "86400")));
+        setField(jwtUtils, "stateless", stateless);
+        invoke(jwtUtils, "init");
+        return jwtUtils;
+    }
+
+    static User user(Long id, String username, Role.ERole... roles) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("unused");
+        user.setEnabled(true);
+        user.setEmailVerified(true);
+        for (Role.ERole role : roles) {
+            Role entity = new Role(role);
+            entity.setId((long) role.ordinal() + 1);
+            user.getRoles().add(entity);
+        }
+        return user;
+    }
+
+    static User adminUser() {
+        return user(1L, "admin", Role.ERole.values());
+    }
+
+    static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    static Object invoke(Object target, String name) {
+        Method method = ReflectionUtils.findMethod(target.getClass(), name);
+        ReflectionUtils.makeAccessible(method);
+        return ReflectionUtils.invokeMethod(method, target);
+    }
+
+    private static Properties load() {
+        try {
+            return PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.entity.Role;
+import com.example.backend.entity.User;
+import com.example.backend.security.JwtAuthenticationFilter;
+import com.example.backend.security.JwtUtils;
+import com.example.backend.service.UserCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through the JWT filter with a stubbed user lookup, in both
+ * the stateless mode and the mode that loads the user for every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"true", "false"})
+    public boolean stateless;
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtUtils jwtUtils = Fixtures.jwtUtils(stateless);
+        User user = Fixtures.user(42L, "alice", Role.ERole.ROLE_USER);
+        UserDetailsService userDetailsService = username -> user;
+        UserCache userCache = new UserCache(null, 10_000, Duration.ofMinutes(5), 86400);
+
+        filter = new JwtAuthenticationFilter(jwtUtils, userDetailsService, userCache);
+        authorization = "Bearer " + jwtUtils.generateToken(user);
+    }
+
+    @Benchmark
+    public Authentication authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.backend.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load against a running backend: each client sends its requests back to
+ * back for the test duration. Prints one JSON line per client count, tagged with the
+ * configuration it ran under, so runs with and without virtual threads can be compared.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.backend.benchmarks.LoadTest \
+ *     --base-url=http://localhost:8080 --clients=1000,10000 --duration=30s --path=/api/users/me
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        String path = options.getOrDefault("path", "/api/users/me");
+        Duration duration = Duration.parse("PT" + options.getOrDefault("duration", "30s").toUpperCase());
+        Duration warmup = Duration.parse("PT" + options.getOrDefault("warmup", "10s").toUpperCase());
+        String mode = options.getOrDefault("mode", "unknown");
+        // Numbers are only comparable between runs with the same configuration
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("java", options.getOrDefault("java", System.getProperty("java.version")));
+        config.put("cpus", options.getOrDefault("cpus", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        config.put("commit", options.getOrDefault("commit", "unknown"));
+        config.put("warmupSeconds", warmup.toSeconds());
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String token = login(client, baseUrl,
+                options.getOrDefault("username", "admin"), options.getOrDefault("password", "admin"));
+
+        for (String clients : options.getOrDefault("clients", "1000,10000").split(",")) {
+            run(client, baseUrl + path, token, Integer.parseInt(clients.trim()), warmup);
+            Result result = run(client, baseUrl + path, token, Integer.parseInt(clients.trim()), duration);
+            System.out.println(MAPPER.writeValueAsString(result.toJson(mode, path, config)));
+        }
+    }
+
+    private static Result run(HttpClient client, String url, String token, int clients, Duration duration) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        Result result = new Result(clients, duration);
+
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            loops[i] = loop(client, request, deadline, result);
+        }
+        CompletableFuture.allOf(loops).join();
+        return result;
+    }
+
+    private static CompletableFuture<Void> loop(HttpClient client, HttpRequest request, long deadline, Result result) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    result.record(System.nanoTime() - start, error == null && response.statusCode() < 400);
+                    return null;
+                })
+                .thenCompose(ignored -> loop(client, request, deadline, result));
+    }
+
+    private static String login(HttpClient client, String baseUrl, String username, String password) throws Exception {
+        Map<String, String> body = Map.of("username", username, "password", password);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonNode json = MAPPER.readTree(response.body());
+        if (response.statusCode() != 200 || !json.hasNonNull("token")) {
+            throw new IllegalStateException("Login failed with " + response.statusCode() + ": " + response.body());
+        }
+        return json.get("token").asText();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        return options;
+    }
+
+    private static final class Result {
+
+        private final int clients;
+        private final Duration duration;
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        Result(int clients, Duration duration) {
+            this.clients = clients;
+            this.duration = duration;
+        }
+
+        void record(long nanos, boolean ok) {
+            (ok ? succeeded : failed).incrementAndGet();
+            latencies.add(nanos);
+        }
+
+        Map<String, Object> toJson(String mode, String path, Map<String, Object> config) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("mode", mode);
+            json.put("path", path);
+            json.put("clients", clients);
+            json.put("durationSeconds", duration.toSeconds());
+            json.put("requests", succeeded.get() + failed.get());
+            json.put("errors", failed.get());
+            json.put("throughputPerSecond", succeeded.get() / (double) duration.toSeconds());
+            json.put("p50Millis", percentile(sorted, 0.50));
+            json.put("p99Millis", percentile(sorted, 0.99));
+            json.put("maxMillis", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0);
+            json.put("config", config);
+            return json;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.service.TwoFactorAuthService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The TOTP computation in TwoFactorAuthService, reached through a private method handle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TwoFactorBenchmark {
+
+    private TwoFactorAuthService service;
+    private MethodHandle generateTotp;
+    private String secret;
+    private long timeCounter;
+
+    @Setup
+    public void setUp() throws Exception {
+        service = new TwoFactorAuthService(null);
+        secret = service.generateTwoFactorSecret();
+        timeCounter = System.currentTimeMillis() / 30_000;
+        generateTotp = MethodHandles.privateLookupIn(TwoFactorAuthService.class, MethodHandles.lookup())
+                .findVirtual(TwoFactorAuthService.class, "generateTOTP",
+                        MethodType.methodType(String.class, String.class, long.class));
+    }
+
+    @Benchmark
+    public String generateTotp() throws Throwable {
+        return (String) generateTotp.invokeExact(service, secret, timeCounter);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.entity.Role;
+import com.example.backend.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User.getAuthorities, which rebuilds the authority list from the role set on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserAuthoritiesBenchmark {
+
+    private User user;
+    private User admin;
+
+    @Setup
+    public void setUp() {
+        user = Fixtures.user(2L, "alice", Role.ERole.ROLE_USER);
+        admin = Fixtures.adminUser();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> singleRole() {
+        return user.getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> allRoles() {
+        return admin.getAuthorities();
+    }
+}
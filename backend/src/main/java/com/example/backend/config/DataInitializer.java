@@ -1,33 +1,24 @@
 package com.example.backend.config;
 
-import com.example.backend.entity.Role;
 import com.example.backend.entity.User;
-import com.example.backend.repository.RoleRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.service.RoleRegistry;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 @Configuration
 public class DataInitializer {
 
     @Bean
-    CommandLineRunner initDatabase(RoleRepository roleRepository, 
+    CommandLineRunner initDatabase(RoleRegistry roleRegistry,
                                   UserRepository userRepository,
                                   PasswordEncoder passwordEncoder) {
         return args -> {
-            // Initialize roles if they don't exist
-            if (roleRepository.count() == 0) {
-                roleRepository.save(new Role(Role.ERole.ROLE_USER));
-                roleRepository.save(new Role(Role.ERole.ROLE_MODERATOR));
-                roleRepository.save(new Role(Role.ERole.ROLE_ADMIN));
-            }
-
-            // Create admin user if it doesn't exist
+            // Create admin user if it doesn't exist; roles come from the RoleRegistry
             if (!userRepository.existsByUsername("admin")) {
                 User admin = new User();
                 admin.setUsername("admin");
@@ -38,9 +29,7 @@ public class DataInitializer {
                 admin.setEnabled(true);
                 admin.setEmailVerified(true); // Admin is pre-verified
                 
-                Set<Role> roles = new HashSet<>();
-                roleRepository.findByName(Role.ERole.ROLE_ADMIN).ifPresent(roles::add);
-                admin.setRoles(roles);
+                admin.setRoles(roleRegistry.resolve(List.of("ROLE_ADMIN")));
                 
                 userRepository.save(admin);
             }
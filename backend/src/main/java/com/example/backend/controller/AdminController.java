@@ -1,14 +1,23 @@
 package com.example.backend.controller;
 
-import com.example.backend.entity.Role;
 import com.example.backend.entity.User;
-import com.example.backend.repository.RoleRepository;
+import com.example.backend.security.UserPrincipal;
+import com.example.backend.payload.request.BulkCreateUsersRequest;
+import com.example.backend.payload.request.BulkUpdateUsersRequest;
+import com.example.backend.payload.request.BulkUserIdsRequest;
+import com.example.backend.payload.response.BulkResult;
+import com.example.backend.payload.response.CursorPage;
+import com.example.backend.payload.response.UserResponse;
+import com.example.backend.payload.response.UserSummary;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.security.MessageResponse;
+import com.example.backend.service.BulkUserService;
 import com.example.backend.service.EmailService;
+import com.example.backend.service.RoleRegistry;
+import com.example.backend.service.UserCache;
+import com.example.backend.service.UserSearchService;
 import com.example.backend.service.UserActivityService;
 import com.example.backend.service.UserService;
-import jakarta.mail.MessagingException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -16,6 +25,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,52 +34,92 @@ import java.util.stream.Collectors;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
 
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final UserService userService;
     private final UserActivityService userActivityService;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final UserCache userCache;
+    private final BulkUserService bulkUserService;
+    private final UserSearchService userSearchService;
 
     public AdminController(
             UserRepository userRepository,
-            RoleRepository roleRepository,
+            RoleRegistry roleRegistry,
             UserService userService,
             UserActivityService userActivityService,
             PasswordEncoder passwordEncoder,
-            EmailService emailService) {
+            EmailService emailService,
+            UserCache userCache,
+            BulkUserService bulkUserService,
+            UserSearchService userSearchService) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.userService = userService;
         this.userActivityService = userActivityService;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
+        this.userCache = userCache;
+        this.bulkUserService = bulkUserService;
+        this.userSearchService = userSearchService;
     }
 
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getAllUsers(Authentication authentication) {
-        User admin = (User) authentication.getPrincipal();
-        userActivityService.logActivity(admin, "ADMIN_ACTION", "Admin viewed all users");
+    public ResponseEntity<?> getAllUsers(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
+        
+        if (limit < 1 || limit > UserService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(new MessageResponse("limit must be between 1 and " + UserService.MAX_PAGE_SIZE));
+        }
+        
+        try {
+            CursorPage<UserSummary> page = userService.listUsers(cursor, limit);
+            userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin viewed all users");
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    // Backs the console's search box, so unlike the listing it is not logged as an admin action
+    @GetMapping("/users/search")
+    public ResponseEntity<?> searchUsers(
+            @RequestParam String q,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            return ResponseEntity.badRequest().body(new MessageResponse("limit must be between 1 and " + MAX_SEARCH_RESULTS));
+        }
         
-        List<User> users = userRepository.findAll();
-        return ResponseEntity.ok(users);
+        try {
+            return ResponseEntity.ok(userSearchService.search(q, role, enabled, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
     }
 
     @GetMapping("/users/{id}")
     public ResponseEntity<?> getUserById(@PathVariable Long id, Authentication authentication) {
-        User admin = (User) authentication.getPrincipal();
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
         
-        return userRepository.findById(id)
+        return userCache.findById(id)
                 .map(user -> {
-                    userActivityService.logActivity(admin, "ADMIN_ACTION", "Admin viewed user details for user ID: " + id);
-                    return ResponseEntity.ok(user);
+                    userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin viewed user details for user ID: " + id);
+                    return ResponseEntity.ok(UserResponse.from(user));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/users")
     public ResponseEntity<?> createUser(@RequestBody Map<String, Object> userData, Authentication authentication) {
-        User admin = (User) authentication.getPrincipal();
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
         
         try {
             // Extract user data
@@ -104,38 +154,15 @@ public class AdminController {
             newUser.setEnabled(true);
             newUser.setEmailVerified(true); // Admin-created users are pre-verified
             
-            // Set roles
-            Set<Role> roles = new HashSet<>();
-            if (roleNames == null || roleNames.isEmpty()) {
-                // Default to USER role if none specified
-                roleRepository.findByName(Role.ERole.ROLE_USER)
-                        .ifPresent(roles::add);
-            } else {
-                roleNames.forEach(roleName -> {
-                    switch (roleName) {
-                        case "ROLE_ADMIN":
-                            roleRepository.findByName(Role.ERole.ROLE_ADMIN)
-                                    .ifPresent(roles::add);
-                            break;
-                        case "ROLE_MODERATOR":
-                            roleRepository.findByName(Role.ERole.ROLE_MODERATOR)
-                                    .ifPresent(roles::add);
-                            break;
-                        default:
-                            roleRepository.findByName(Role.ERole.ROLE_USER)
-                                    .ifPresent(roles::add);
-                            break;
-                    }
-                });
-            }
-            
-            newUser.setRoles(roles);
+            // Set roles, defaulting to USER if none specified
+            newUser.setRoles(roleRegistry.resolve(roleNames));
             User savedUser = userRepository.save(newUser);
+            userCache.evict(savedUser);
             
             // Log activity
-            userActivityService.logActivity(admin, "ADMIN_ACTION", "Admin created new user: " + username);
+            userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin created new user: " + username);
             
-            return ResponseEntity.ok(savedUser);
+            return ResponseEntity.ok(UserResponse.from(savedUser));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new MessageResponse("Error creating user: " + e.getMessage()));
         }
@@ -143,7 +170,7 @@ public class AdminController {
 
     @PutMapping("/users/{id}")
     public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody Map<String, Object> updates, Authentication authentication) {
-        User admin = (User) authentication.getPrincipal();
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
         
         // Prevent admin from updating their own account through this endpoint
         if (admin.getId().equals(id)) {
@@ -187,24 +214,7 @@ public class AdminController {
             if (updates.containsKey("roles")) {
                 List<String> roleNames = (List<String>) updates.get("roles");
                 if (roleNames != null && !roleNames.isEmpty()) {
-                    Set<Role> roles = new HashSet<>();
-                    roleNames.forEach(roleName -> {
-                        switch (roleName) {
-                            case "ROLE_ADMIN":
-                                roleRepository.findByName(Role.ERole.ROLE_ADMIN)
-                                        .ifPresent(roles::add);
-                                break;
-                            case "ROLE_MODERATOR":
-                                roleRepository.findByName(Role.ERole.ROLE_MODERATOR)
-                                        .ifPresent(roles::add);
-                                break;
-                            default:
-                                roleRepository.findByName(Role.ERole.ROLE_USER)
-                                        .ifPresent(roles::add);
-                                break;
-                        }
-                    });
-                    user.setRoles(roles);
+                    user.setRoles(roleRegistry.resolve(roleNames));
                 }
             }
             
@@ -225,19 +235,15 @@ public class AdminController {
             }
             
             User updatedUser = userRepository.save(user);
+            userCache.evict(id);
             
             // Log activity
-            userActivityService.logActivity(admin, "ADMIN_ACTION", "Admin updated user: " + user.getUsername());
+            userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin updated user: " + user.getUsername());
             
-            // Send notification email to user
-            try {
-                emailService.sendAccountUpdateEmail(user.getEmail(), user.getUsername());
-            } catch (MessagingException e) {
-                // Don't fail the update if email sending fails
-                System.err.println("Failed to send account update email: " + e.getMessage());
-            }
+            // Queue notification email to user
+            emailService.sendAccountUpdateEmail(user.getEmail(), user.getUsername());
             
-            return ResponseEntity.ok(updatedUser);
+            return ResponseEntity.ok(UserResponse.from(updatedUser));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new MessageResponse("Error updating user: " + e.getMessage()));
         }
@@ -245,7 +251,7 @@ public class AdminController {
 
     @DeleteMapping("/users/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable Long id, Authentication authentication) {
-        User admin = (User) authentication.getPrincipal();
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
         
         // Prevent admin from deleting their own account
         if (admin.getId().equals(id)) {
@@ -262,19 +268,15 @@ public class AdminController {
         String username = user.getUsername();
         
         try {
-            // Send deletion notification before deleting the user
-            try {
-                emailService.sendAccountDeletionEmail(userEmail, username);
-            } catch (MessagingException e) {
-                // Don't fail the deletion if email sending fails
-                System.err.println("Failed to send account deletion email: " + e.getMessage());
-            }
+            // Queue deletion notification before deleting the user
+            emailService.sendAccountDeletionEmail(userEmail, username);
             
             // Log activity before deleting the user
-            userActivityService.logActivity(admin, "ADMIN_ACTION", "Admin deleted user: " + username);
+            userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin deleted user: " + username);
             
             // Delete the user
             userRepository.deleteById(id);
+            userCache.evict(id);
             
             return ResponseEntity.ok(new MessageResponse("User deleted successfully"));
         } catch (Exception e) {
@@ -282,43 +284,60 @@ public class AdminController {
         }
     }
     
+    @PostMapping("/users/bulk/create")
+    public ResponseEntity<?> bulkCreateUsers(@RequestBody BulkCreateUsersRequest request, Authentication authentication) {
+        return bulk(authentication, "created", () -> bulkUserService.createUsers(request.getUsers()));
+    }
+
+    @PostMapping("/users/bulk/update")
+    public ResponseEntity<?> bulkUpdateUsers(@RequestBody BulkUpdateUsersRequest request, Authentication authentication) {
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
+        return bulk(authentication, "updated", () -> bulkUserService.updateUsers(request.getUsers(), admin.getId()));
+    }
+
+    @PostMapping("/users/bulk/disable")
+    public ResponseEntity<?> bulkDisableUsers(@RequestBody BulkUserIdsRequest request, Authentication authentication) {
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
+        return bulk(authentication, "disabled", () -> bulkUserService.disableUsers(request.getIds(), admin.getId()));
+    }
+
+    @PostMapping("/users/bulk/delete")
+    public ResponseEntity<?> bulkDeleteUsers(@RequestBody BulkUserIdsRequest request, Authentication authentication) {
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
+        return bulk(authentication, "deleted", () -> bulkUserService.deleteUsers(request.getIds(), admin.getId()));
+    }
+
+    // One activity entry per bulk request rather than per user
+    private ResponseEntity<?> bulk(Authentication authentication, String verb, Supplier<BulkResult> operation) {
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
+        try {
+            BulkResult result = operation.get();
+            userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin bulk " + verb + " "
+                    + result.getSucceeded() + " users (" + result.getFailed() + " failed)");
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/stats")
     public ResponseEntity<?> getAdminStats(Authentication authentication) {
-        User admin = (User) authentication.getPrincipal();
-        userActivityService.logActivity(admin, "ADMIN_ACTION", "Admin viewed system statistics");
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
+        userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin viewed system statistics");
         
-        Map<String, Object> stats = new HashMap<>();
+        // All counts come from a single aggregate query
+        UserRepository.UserStats userStats = userRepository.aggregateStats();
         
-        // Get total user count
-        long totalUsers = userRepository.count();
-        stats.put("totalUsers", totalUsers);
-        
-        // Get active users (enabled accounts)
-        long activeUsers = userRepository.findAll().stream()
-                .filter(User::isEnabled)
-                .count();
-        stats.put("activeUsers", activeUsers);
-        
-        // Get verified users
-        long verifiedUsers = userRepository.findAll().stream()
-                .filter(User::isEmailVerified)
-                .count();
-        stats.put("verifiedUsers", verifiedUsers);
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalUsers", userStats.getTotalUsers());
+        stats.put("activeUsers", userStats.getActiveUsers());
+        stats.put("verifiedUsers", userStats.getVerifiedUsers());
         
         // Get users by role
         Map<String, Long> usersByRole = new HashMap<>();
-        usersByRole.put("admin", userRepository.findAll().stream()
-                .filter(user -> user.getRoles().stream()
-                        .anyMatch(role -> role.getName() == Role.ERole.ROLE_ADMIN))
-                .count());
-        usersByRole.put("moderator", userRepository.findAll().stream()
-                .filter(user -> user.getRoles().stream()
-                        .anyMatch(role -> role.getName() == Role.ERole.ROLE_MODERATOR))
-                .count());
-        usersByRole.put("user", userRepository.findAll().stream()
-                .filter(user -> user.getRoles().stream()
-                        .anyMatch(role -> role.getName() == Role.ERole.ROLE_USER))
-                .count());
+        usersByRole.put("admin", userStats.getAdminUsers());
+        usersByRole.put("moderator", userStats.getModeratorUsers());
+        usersByRole.put("user", userStats.getRegularUsers());
         stats.put("usersByRole", usersByRole);
         
         return ResponseEntity.ok(stats);
@@ -1,13 +1,16 @@
 package com.example.backend.controller;
 
-import com.example.backend.entity.Role;
+import com.example.backend.entity.OneTimeToken;
 import com.example.backend.entity.User;
-import com.example.backend.repository.RoleRepository;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.security.*;
 import com.example.backend.service.EmailService;
+import com.example.backend.service.OneTimeTokenService;
+import com.example.backend.service.RoleRegistry;
 import com.example.backend.service.TwoFactorAuthService;
-import jakarta.mail.MessagingException;
+import com.example.backend.service.UserActivityService;
+import com.example.backend.service.UserCache;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,7 +21,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,31 +32,45 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
     private final EmailService emailService;
     private final TwoFactorAuthService twoFactorAuthService;
+    private final UserCache userCache;
+    private final UserActivityService userActivityService;
+    private final RateLimiter rateLimiter;
+    private final OneTimeTokenService tokenService;
 
     public AuthController(AuthenticationManager authenticationManager,
                          UserRepository userRepository,
-                         RoleRepository roleRepository,
+                         RoleRegistry roleRegistry,
                          PasswordEncoder passwordEncoder,
                          JwtUtils jwtUtils,
                          EmailService emailService,
-                         TwoFactorAuthService twoFactorAuthService) {
+                         TwoFactorAuthService twoFactorAuthService,
+                         UserCache userCache,
+                         UserActivityService userActivityService,
+                         RateLimiter rateLimiter,
+                         OneTimeTokenService tokenService) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtils = jwtUtils;
         this.emailService = emailService;
         this.twoFactorAuthService = twoFactorAuthService;
+        this.userCache = userCache;
+        this.userActivityService = userActivityService;
+        this.rateLimiter = rateLimiter;
+        this.tokenService = tokenService;
     }
 
    
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                              HttpServletRequest request) {
+        rateLimiter.check(RateLimiter.Action.LOGIN, request, loginRequest.getUsername());
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         loginRequest.getUsername(),
@@ -73,20 +90,17 @@ public class AuthController {
         if (userDetails.isTwoFactorEnabled()) {
             // Generate and send 2FA code
             String twoFactorCode = twoFactorAuthService.generateTwoFactorCode(userDetails);
-            try {
-                emailService.sendTwoFactorAuthenticationEmail(userDetails.getEmail(), twoFactorCode);
-                Map<String, Object> response = new HashMap<>();
-                response.put("userId", userDetails.getId());
-                response.put("username", userDetails.getUsername());
-                response.put("requiresTwoFactor", true);
-                return ResponseEntity.ok(response);
-            } catch (MessagingException e) {
-                return ResponseEntity.badRequest().body(new MessageResponse("Error: Failed to send 2FA code."));
-            }
+            emailService.sendTwoFactorAuthenticationEmail(userDetails.getEmail(), twoFactorCode);
+            Map<String, Object> response = new HashMap<>();
+            response.put("userId", userDetails.getId());
+            response.put("username", userDetails.getUsername());
+            response.put("requiresTwoFactor", true);
+            return ResponseEntity.ok(response);
         }
         
         // If 2FA is not enabled, generate JWT and return user info
         String jwt = jwtUtils.generateToken(userDetails);
+        userActivityService.logActivity(userDetails, "LOGIN", "User logged in");
         List<String> roles = userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
@@ -103,8 +117,10 @@ public class AuthController {
     }
 
     @PostMapping("/verify-2fa")
-    public ResponseEntity<?> verifyTwoFactorCode(@Valid @RequestBody TwoFactorRequest twoFactorRequest) {
-        Optional<User> userOptional = userRepository.findById(twoFactorRequest.getUserId());
+    public ResponseEntity<?> verifyTwoFactorCode(@Valid @RequestBody TwoFactorRequest twoFactorRequest,
+                                                 HttpServletRequest request) {
+        rateLimiter.check(RateLimiter.Action.VERIFY_TWO_FACTOR, request, String.valueOf(twoFactorRequest.getUserId()));
+        Optional<User> userOptional = userCache.findById(twoFactorRequest.getUserId());
         if (userOptional.isEmpty()) {
             return ResponseEntity.badRequest().body(new MessageResponse("Error: User not found."));
         }
@@ -114,6 +130,7 @@ public class AuthController {
         if (twoFactorAuthService.verifyTwoFactorCode(user, twoFactorRequest.getCode())) {
             // Generate JWT and return user info
             String jwt = jwtUtils.generateToken(user);
+            userActivityService.logActivity(user, "LOGIN", "User logged in with two-factor authentication");
             List<String> roles = user.getAuthorities().stream()
                     .map(GrantedAuthority::getAuthority)
                     .collect(Collectors.toList());
@@ -152,54 +169,22 @@ public class AuthController {
         user.setEnabled(true);
         user.setEmailVerified(false);
         
-        // Generate verification token
-        String verificationToken = UUID.randomUUID().toString();
-        user.setVerificationToken(verificationToken);
-        user.setVerificationTokenExpiry(LocalDateTime.now().plusDays(1));
-
-        Set<String> strRoles = registerRequest.getRoles();
-        Set<Role> roles = new HashSet<>();
-
-        if (strRoles == null) {
-            Role userRole = roleRepository.findByName(Role.ERole.ROLE_USER)
-                    .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-            roles.add(userRole);
-        } else {
-            strRoles.forEach(role -> {
-                switch (role) {
-                    case "admin":
-                        Role adminRole = roleRepository.findByName(Role.ERole.ROLE_ADMIN)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-                        roles.add(adminRole);
-                        break;
-                    case "mod":
-                        Role modRole = roleRepository.findByName(Role.ERole.ROLE_MODERATOR)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-                        roles.add(modRole);
-                        break;
-                    default:
-                        Role userRole = roleRepository.findByName(Role.ERole.ROLE_USER)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-                        roles.add(userRole);
-                }
-            });
-        }
-
-        user.setRoles(roles);
+        user.setRoles(roleRegistry.resolve(registerRequest.getRoles()));
         userRepository.save(user);
         
-        // Send verification email
-        try {
-            emailService.sendVerificationEmail(user.getEmail(), verificationToken);
-        } catch (MessagingException e) {
-            return ResponseEntity.badRequest().body(new MessageResponse("User registered but failed to send verification email."));
-        }
+        // Generate verification token
+        String verificationToken = tokenService.issue(user.getId(), OneTimeToken.Purpose.EMAIL_VERIFICATION, Duration.ofDays(1));
+        
+        // Queue verification email
+        emailService.sendVerificationEmail(user.getEmail(), verificationToken);
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully! Please check your email to verify your account."));
     }
     
     @PostMapping("/forgot-password")
-    public ResponseEntity<?> forgotPassword(@RequestBody ForgotPasswordRequest forgotPasswordRequest) {
+    public ResponseEntity<?> forgotPassword(@RequestBody ForgotPasswordRequest forgotPasswordRequest,
+                                            HttpServletRequest request) {
+        rateLimiter.check(RateLimiter.Action.FORGOT_PASSWORD, request, forgotPasswordRequest.getEmail());
         Optional<User> userOptional = userRepository.findByEmail(forgotPasswordRequest.getEmail());
         if (userOptional.isEmpty()) {
             // Don't reveal that the email doesn't exist for security reasons
@@ -208,31 +193,25 @@ public class AuthController {
         
         User user = userOptional.get();
         
-        // Generate reset token
-        String resetToken = UUID.randomUUID().toString();
-        user.setResetPasswordToken(resetToken);
-        user.setResetPasswordTokenExpiry(LocalDateTime.now().plusHours(1));
-        userRepository.save(user);
+        // Generate reset token, replacing any earlier one
+        String resetToken = tokenService.issue(user.getId(), OneTimeToken.Purpose.PASSWORD_RESET, Duration.ofHours(1));
         
-        // Send password reset email
-        try {
-            emailService.sendPasswordResetEmail(user.getEmail(), resetToken);
-        } catch (MessagingException e) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Failed to send password reset email."));
-        }
+        // Queue password reset email
+        emailService.sendPasswordResetEmail(user.getEmail(), resetToken);
         
         return ResponseEntity.ok(new MessageResponse("If your email is registered, you will receive a password reset link."));
     }
     
     @PostMapping("/enable-2fa")
     public ResponseEntity<?> enableTwoFactorAuth(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
+        User user = currentUser(authentication);
         
         // Generate 2FA secret
         String secret = twoFactorAuthService.generateTwoFactorSecret();
         user.setTwoFactorSecret(secret);
         user.setTwoFactorEnabled(true);
         userRepository.save(user);
+        userCache.evict(user);
         
         // Generate QR code URL
         String qrCodeUrl = twoFactorAuthService.generateQrCodeUrl(user.getUsername(), secret);
@@ -242,12 +221,19 @@ public class AuthController {
     
     @PostMapping("/disable-2fa")
     public ResponseEntity<?> disableTwoFactorAuth(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
+        User user = currentUser(authentication);
         
         user.setTwoFactorSecret(null);
         user.setTwoFactorEnabled(false);
         userRepository.save(user);
+        userCache.evict(user);
         
         return ResponseEntity.ok(new MessageResponse("Two-factor authentication disabled successfully."));
     }
+    
+    private User currentUser(Authentication authentication) {
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        return userRepository.findById(principal.getId())
+                .orElseThrow(() -> new RuntimeException("Error: User not found."));
+    }
 }
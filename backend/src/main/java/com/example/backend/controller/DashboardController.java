@@ -1,37 +1,56 @@
 package com.example.backend.controller;
 
-import com.example.backend.entity.User;
-import com.example.backend.entity.UserActivity;
+import com.example.backend.payload.response.ActivityItem;
+import com.example.backend.entity.UserDailyStats;
+import com.example.backend.repository.UserDailyStatsRepository;
+import com.example.backend.security.UserPrincipal;
 import com.example.backend.service.UserActivityService;
+import com.example.backend.service.UserStatsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/dashboard")
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class DashboardController {
     
+    private static final String DASHBOARD_VIEW = "DASHBOARD_VIEW";
+    
     private final UserActivityService userActivityService;
+    private final UserStatsService userStatsService;
     
-    public DashboardController(UserActivityService userActivityService) {
+    public DashboardController(UserActivityService userActivityService, UserStatsService userStatsService) {
         this.userActivityService = userActivityService;
+        this.userStatsService = userStatsService;
     }
     
     @GetMapping("/user-stats")
-    public ResponseEntity<?> getUserDashboardStats(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
+    public ResponseEntity<?> getUserDashboardStats(Authentication authentication, WebRequest webRequest) {
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
+        
+        // Everything below derives from the user's activities other than dashboard views, so their
+        // version covers the whole body and logging this view does not invalidate it
+        String etag = "\"user-stats-" + userActivityService.getActivityVersion(user.getId(), DASHBOARD_VIEW) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         
         // Log activity
-        userActivityService.logActivity(user, "DASHBOARD_VIEW", "User viewed their dashboard");
+        userActivityService.logActivity(user.getId(), DASHBOARD_VIEW, "User viewed their dashboard");
         
         // Get recent activities
-        List<UserActivity> recentActivities = userActivityService.getRecentUserActivities(user.getId());
+        List<ActivityItem> recentActivities = userActivityService.getRecentUserActivities(user.getId(), DASHBOARD_VIEW);
         
         // In a real application, you would fetch more stats from various services
         Map<String, Object> stats = new HashMap<>();
@@ -39,23 +58,56 @@ public class DashboardController {
         stats.put("totalActivities", recentActivities.size());
         stats.put("lastLogin", "2023-11-15T10:30:00"); // This would be fetched from a real service
         
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(stats);
     }
     
     @GetMapping("/admin-stats")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getAdminDashboardStats(Authentication authentication) {
-        User admin = (User) authentication.getPrincipal();
+    public ResponseEntity<?> getAdminDashboardStats(
+            Authentication authentication,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "week") String bucket) {
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
         
         // Log activity
-        userActivityService.logActivity(admin, "ADMIN_ACTION", "Admin viewed dashboard statistics");
+        userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin viewed dashboard statistics");
+        
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusWeeks(8);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "'from' must not be after 'to'"));
+        }
+        
+        UserStatsService.Bucket bucketSize;
+        try {
+            bucketSize = UserStatsService.Bucket.valueOf(bucket.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "bucket must be one of day, week or month"));
+        }
+        
+        List<UserDailyStatsRepository.BucketStats> series = userStatsService.getSeries(start, end, bucketSize);
+        Optional<UserDailyStats> latest = userStatsService.getLatest();
         
-        // In a real application, you would fetch these stats from various services
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalUsers", 120);
-        stats.put("activeUsers", 85);
-        stats.put("newUsers", 12);
-        stats.put("userGrowth", new int[]{40, 45, 55, 60, 75, 85, 100, 120});
+        stats.put("totalUsers", latest.map(UserDailyStats::getTotalUsers).orElse(0L));
+        stats.put("activeUsers", latest.map(UserDailyStats::getActiveUsers).orElse(0L));
+        stats.put("newUsers", series.stream().mapToLong(UserDailyStatsRepository.BucketStats::getSignups).sum());
+        stats.put("userGrowth", series.stream().mapToLong(UserDailyStatsRepository.BucketStats::getTotalUsers).toArray());
+        stats.put("bucket", bucketSize.name().toLowerCase());
+        stats.put("series", series.stream().map(b -> {
+            Map<String, Object> point = new HashMap<>();
+            point.put("bucketStart", b.getBucketStart());
+            point.put("signups", b.getSignups());
+            point.put("verifications", b.getVerifications());
+            point.put("logins", b.getLogins());
+            point.put("peakDailyActiveUsers", b.getPeakDailyActiveUsers());
+            point.put("totalUsers", b.getTotalUsers());
+            return point;
+        }).toList());
         
         return ResponseEntity.ok(stats);
     }
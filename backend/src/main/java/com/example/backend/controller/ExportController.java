@@ -0,0 +1,99 @@
+package com.example.backend.controller;
+
+import com.example.backend.security.UserPrincipal;
+import com.example.backend.service.ExportService;
+import com.example.backend.service.UserActivityService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/admin/export")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportController {
+
+    private final ExportService exportService;
+    private final UserActivityService userActivityService;
+
+    public ExportController(ExportService exportService, UserActivityService userActivityService) {
+        this.exportService = exportService;
+        this.userActivityService = userActivityService;
+    }
+
+    @GetMapping("/users")
+    public void exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            Authentication authentication,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
+        ExportService.Format exportFormat = parseFormat(format, response);
+        if (exportFormat == null) {
+            return;
+        }
+        
+        userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin exported users");
+        
+        try (OutputStream out = openBody(request, response, exportFormat, "users")) {
+            exportService.exportUsers(exportFormat, out);
+        }
+    }
+
+    @GetMapping("/activities")
+    public void exportActivities(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            Authentication authentication,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
+        ExportService.Format exportFormat = parseFormat(format, response);
+        if (exportFormat == null) {
+            return;
+        }
+        
+        userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin exported activity history");
+        
+        try (OutputStream out = openBody(request, response, exportFormat, "activities")) {
+            exportService.exportActivities(exportFormat, userId, type, from, to, out);
+        }
+    }
+
+    private ExportService.Format parseFormat(String format, HttpServletResponse response) throws IOException {
+        try {
+            return ExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "format must be ndjson or csv");
+            return null;
+        }
+    }
+
+    // Writes straight to the servlet stream, gzipped when the client accepts it
+    private OutputStream openBody(HttpServletRequest request, HttpServletResponse response,
+                                  ExportService.Format format, String name) throws IOException {
+        response.setContentType(format.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "." + format.getExtension() + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), 8192);
+        }
+        return response.getOutputStream();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.backend.controller;
+
+import com.example.backend.payload.response.ImportStatus;
+import com.example.backend.payload.response.MessageResponse;
+import com.example.backend.security.UserPrincipal;
+import com.example.backend.service.ExportService;
+import com.example.backend.service.UserActivityService;
+import com.example.backend.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/admin/import")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@PreAuthorize("hasRole('ADMIN')")
+public class ImportController {
+
+    private final UserImportService userImportService;
+    private final UserActivityService userActivityService;
+
+    public ImportController(UserImportService userImportService, UserActivityService userActivityService) {
+        this.userImportService = userImportService;
+        this.userActivityService = userActivityService;
+    }
+
+    // The body is the raw CSV or NDJSON file, not a multipart form
+    @PostMapping("/users")
+    public ResponseEntity<?> importUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            Authentication authentication,
+            HttpServletRequest request) throws IOException {
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
+        ExportService.Format importFormat;
+        try {
+            importFormat = ExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: format must be ndjson or csv"));
+        }
+
+        ImportStatus status;
+        try {
+            status = userImportService.start(importFormat, request.getInputStream());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(new MessageResponse("Error: " + e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new MessageResponse("Error: " + e.getMessage()));
+        }
+
+        userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin started user import " + status.getId());
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/import/jobs/" + status.getId()))
+                .body(status);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ImportStatus> getImport(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int errorsFrom) {
+        return userImportService.find(id, errorsFrom)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,17 +1,18 @@
 package com.example.backend.controller;
 
+import com.example.backend.entity.OneTimeToken;
 import com.example.backend.entity.User;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.security.MessageResponse;
 import com.example.backend.security.ResetPasswordRequest;
 import com.example.backend.service.EmailService;
+import com.example.backend.service.OneTimeTokenService;
 import com.example.backend.service.UserActivityService;
-import jakarta.mail.MessagingException;
+import com.example.backend.service.UserCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.Optional;
 
 @RestController
@@ -23,65 +24,63 @@ public class ResetPasswordController {
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
     private final UserActivityService userActivityService;
+    private final UserCache userCache;
+    private final OneTimeTokenService tokenService;
 
     public ResetPasswordController(
             UserRepository userRepository, 
             PasswordEncoder passwordEncoder,
             EmailService emailService,
-            UserActivityService userActivityService) {
+            UserActivityService userActivityService,
+            UserCache userCache,
+            OneTimeTokenService tokenService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
         this.userActivityService = userActivityService;
+        this.userCache = userCache;
+        this.tokenService = tokenService;
     }
 
     @PostMapping
     public ResponseEntity<?> resetPassword(@RequestBody ResetPasswordRequest resetPasswordRequest) {
-        Optional<User> userOptional = userRepository.findByResetPasswordToken(resetPasswordRequest.getToken());
+        String token = resetPasswordRequest.getToken();
+        // Checked without using it up, so a bogus token costs no hashing
+        if (tokenService.peek(token, OneTimeToken.Purpose.PASSWORD_RESET).isEmpty()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid or expired reset token."));
+        }
+
+        // Hashed before redeeming, so a rejected or failed hash leaves the token usable
+        String encodedPassword = passwordEncoder.encode(resetPasswordRequest.getNewPassword());
+
+        Optional<User> userOptional = tokenService
+                .redeem(token, OneTimeToken.Purpose.PASSWORD_RESET)
+                .flatMap(userRepository::findById);
         
         if (userOptional.isEmpty()) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid reset token."));
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid or expired reset token."));
         }
         
         User user = userOptional.get();
         
-        if (user.getResetPasswordTokenExpiry().isBefore(LocalDateTime.now())) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Reset token has expired."));
-        }
-        
         // Update password
-        user.setPassword(passwordEncoder.encode(resetPasswordRequest.getNewPassword()));
-        user.setResetPasswordToken(null);
-        user.setResetPasswordTokenExpiry(null);
+        user.setPassword(encodedPassword);
         userRepository.save(user);
+        userCache.evict(user);
         
         // Log the password reset activity
         userActivityService.logActivity(user, "PASSWORD_RESET", "User reset their password via email");
         
-        // Send confirmation email
-        try {
-            emailService.sendPasswordResetConfirmationEmail(user.getEmail());
-        } catch (MessagingException e) {
-            // We don't want to fail the password reset if the confirmation email fails
-            // Just log the error
-            System.err.println("Failed to send password reset confirmation email: " + e.getMessage());
-        }
+        // Queue confirmation email
+        emailService.sendPasswordResetConfirmationEmail(user.getEmail());
         
         return ResponseEntity.ok(new MessageResponse("Password reset successfully! You can now log in with your new password."));
     }
     
     @GetMapping("/validate")
     public ResponseEntity<?> validateResetToken(@RequestParam String token) {
-        Optional<User> userOptional = userRepository.findByResetPasswordToken(token);
-        
-        if (userOptional.isEmpty()) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid reset token."));
-        }
-        
-        User user = userOptional.get();
-        
-        if (user.getResetPasswordTokenExpiry().isBefore(LocalDateTime.now())) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Reset token has expired."));
+        if (tokenService.peek(token, OneTimeToken.Purpose.PASSWORD_RESET).isEmpty()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid or expired reset token."));
         }
         
         return ResponseEntity.ok(new MessageResponse("Valid reset token."));
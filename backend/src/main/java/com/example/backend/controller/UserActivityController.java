@@ -1,57 +1,103 @@
 package com.example.backend.controller;
 
-import com.example.backend.entity.User;
-import com.example.backend.entity.UserActivity;
+import com.example.backend.payload.response.ActivityItem;
+import com.example.backend.security.UserPrincipal;
+import com.example.backend.service.ActivityStreamPublisher;
 import com.example.backend.service.UserActivityService;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/activities")
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class UserActivityController {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final UserActivityService userActivityService;
+    private final ActivityStreamPublisher activityStreamPublisher;
     
-    public UserActivityController(UserActivityService userActivityService) {
+    public UserActivityController(UserActivityService userActivityService,
+                                  ActivityStreamPublisher activityStreamPublisher) {
         this.userActivityService = userActivityService;
+        this.activityStreamPublisher = activityStreamPublisher;
     }
     
     @GetMapping("/me")
-    public ResponseEntity<List<UserActivity>> getMyRecentActivities(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        List<UserActivity> activities = userActivityService.getRecentUserActivities(user.getId());
-        return ResponseEntity.ok(activities);
+    public ResponseEntity<List<ActivityItem>> getMyRecentActivities(Authentication authentication, WebRequest webRequest) {
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
+        // Read the version before the rows, so a write in between can only make the ETag stale, never too new
+        String etag = "\"activities-" + userActivityService.getActivityVersion(user.getId()) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        
+        List<ActivityItem> activities = userActivityService.getRecentUserActivities(user.getId());
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(activities);
     }
     
     @GetMapping("/me/all")
-    public ResponseEntity<Page<UserActivity>> getMyActivities(
+    public ResponseEntity<?> getMyActivities(
             Authentication authentication,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit) {
         
-        User user = (User) authentication.getPrincipal();
-        Pageable pageable = PageRequest.of(page, size);
-        Page<UserActivity> activities = userActivityService.getUserActivities(user.getId(), pageable);
-        return ResponseEntity.ok(activities);
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
+        return feed(user.getId(), type, cursor, limit);
     }
     
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('ADMIN') or authentication.principal.id == #userId")
-    public ResponseEntity<Page<UserActivity>> getUserActivities(
+    public ResponseEntity<?> getUserActivities(
             @PathVariable Long userId,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        return feed(userId, type, cursor, limit);
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SseEmitter> streamActivities(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String type,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        
+        try {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    // Stops nginx and similar proxies from buffering the stream
+                    .header("X-Accel-Buffering", "no")
+                    .body(activityStreamPublisher.subscribe(userId, type, lastEventId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    private ResponseEntity<?> feed(Long userId, String type, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("message", "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
         
-        Pageable pageable = PageRequest.of(page, size);
-        Page<UserActivity> activities = userActivityService.getUserActivities(userId, pageable);
-        return ResponseEntity.ok(activities);
+        try {
+            return ResponseEntity.ok(userActivityService.getActivityFeed(userId, type, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
 }
@@ -1,17 +1,23 @@
 package com.example.backend.controller;
 
 import com.example.backend.entity.User;
+import com.example.backend.payload.response.CursorPage;
+import com.example.backend.payload.response.UserResponse;
+import com.example.backend.payload.response.UserSummary;
+import com.example.backend.security.UserPrincipal;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.service.UserActivityService;
+import com.example.backend.service.UserCache;
 import com.example.backend.service.UserService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,82 +28,92 @@ public class UserController {
     private final UserRepository userRepository;
     private final UserService userService;
     private final UserActivityService userActivityService;
+    private final UserCache userCache;
 
-    public UserController(UserRepository userRepository, UserService userService, UserActivityService userActivityService) {
+    public UserController(UserRepository userRepository, UserService userService,
+                          UserActivityService userActivityService, UserCache userCache) {
         this.userRepository = userRepository;
         this.userService = userService;
         this.userActivityService = userActivityService;
+        this.userCache = userCache;
     }
 
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser() {
+    public ResponseEntity<?> getCurrentUser(WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = (User) authentication.getPrincipal();
-        
-        // Log activity
-        userActivityService.logActivity(user, "PROFILE_VIEW", "User viewed their profile");
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        // Pre-serialized bytes from the user cache, written without going through Jackson
+        UserCache.Profile profile = userService.getProfile(principal.getId()).orElse(null);
+        if (profile == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (webRequest.checkNotModified(profile.etag())) {
+            return null;
+        }
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", user.getId());
-        response.put("username", user.getUsername());
-        response.put("email", user.getEmail());
-        response.put("firstName", user.getFirstName());
-        response.put("lastName", user.getLastName());
-        response.put("roles", user.getRoles());
+        // The ETag is a digest of the profile itself, so a 200 always carries a changed profile
+        userActivityService.logActivity(principal.getId(), "PROFILE_VIEW", "User viewed their profile");
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(profile.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(profile.json());
     }
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User admin = (User) authentication.getPrincipal();
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
         
-        // Log activity
-        userActivityService.logActivity(admin, "ADMIN_ACTION", "Admin viewed all users");
+        if (limit < 1 || limit > UserService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("message", "limit must be between 1 and " + UserService.MAX_PAGE_SIZE));
+        }
         
-        List<User> users = userRepository.findAll();
-        return ResponseEntity.ok(users);
+        try {
+            CursorPage<UserSummary> page = userService.listUsers(cursor, limit);
+            
+            // Log activity
+            userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin viewed all users");
+            
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or authentication.principal.id == #id")
     public ResponseEntity<?> getUserById(@PathVariable Long id) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User currentUser = (User) authentication.getPrincipal();
+        UserPrincipal currentUser = (UserPrincipal) authentication.getPrincipal();
         
         // Log activity
         if (currentUser.getId().equals(id)) {
-            userActivityService.logActivity(currentUser, "PROFILE_VIEW", "User viewed their profile details");
+            userActivityService.logActivity(currentUser.getId(), "PROFILE_VIEW", "User viewed their profile details");
         } else {
-            userActivityService.logActivity(currentUser, "ADMIN_ACTION", "Admin viewed user with ID: " + id);
+            userActivityService.logActivity(currentUser.getId(), "ADMIN_ACTION", "Admin viewed user with ID: " + id);
         }
         
-        return userRepository.findById(id)
-                .map(ResponseEntity::ok)
+        return userCache.findById(id)
+                .map(user -> ResponseEntity.ok(UserResponse.from(user)))
                 .orElse(ResponseEntity.notFound().build());
     }
     
     @PutMapping("/me")
     public ResponseEntity<?> updateCurrentUser(@RequestBody Map<String, String> updates, Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
         
         try {
             User updatedUser = userService.updateUser(user.getId(), updates);
             
             // Log activity
-            userActivityService.logActivity(user, "PROFILE_UPDATE", "User updated their profile");
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", updatedUser.getId());
-            response.put("username", updatedUser.getUsername());
-            response.put("email", updatedUser.getEmail());
-            response.put("firstName", updatedUser.getFirstName());
-            response.put("lastName", updatedUser.getLastName());
-            response.put("message", "Profile updated successfully");
+            userActivityService.logActivity(user.getId(), "PROFILE_UPDATE", "User updated their profile");
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(UserResponse.from(updatedUser));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
@@ -106,15 +122,15 @@ public class UserController {
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody Map<String, String> updates, Authentication authentication) {
-        User admin = (User) authentication.getPrincipal();
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
         
         try {
             User updatedUser = userService.updateUser(id, updates);
             
             // Log activity
-            userActivityService.logActivity(admin, "ADMIN_ACTION", "Admin updated user with ID: " + id);
+            userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin updated user with ID: " + id);
             
-            return ResponseEntity.ok(updatedUser);
+            return ResponseEntity.ok(UserResponse.from(updatedUser));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
@@ -123,7 +139,7 @@ public class UserController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> deleteUser(@PathVariable Long id, Authentication authentication) {
-        User admin = (User) authentication.getPrincipal();
+        UserPrincipal admin = (UserPrincipal) authentication.getPrincipal();
         
         if (admin.getId().equals(id)) {
             return ResponseEntity.badRequest().body(Map.of("message", "You cannot delete your own account"));
@@ -133,7 +149,7 @@ public class UserController {
             userService.deleteUser(id);
             
             // Log activity
-            userActivityService.logActivity(admin, "ADMIN_ACTION", "Admin deleted user with ID: " + id);
+            userActivityService.logActivity(admin.getId(), "ADMIN_ACTION", "Admin deleted user with ID: " + id);
             
             return ResponseEntity.ok(Map.of("message", "User deleted successfully"));
         } catch (Exception e) {
@@ -143,7 +159,7 @@ public class UserController {
     
     @PostMapping("/change-password")
     public ResponseEntity<?> changePassword(@RequestBody Map<String, String> passwordData, Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
         
         String currentPassword = passwordData.get("currentPassword");
         String newPassword = passwordData.get("newPassword");
@@ -152,7 +168,7 @@ public class UserController {
             userService.changePassword(user.getId(), currentPassword, newPassword);
             
             // Log activity
-            userActivityService.logActivity(user, "PASSWORD_CHANGE", "User changed their password");
+            userActivityService.logActivity(user.getId(), "PASSWORD_CHANGE", "User changed their password");
             
             return ResponseEntity.ok(Map.of("message", "Password changed successfully"));
         } catch (Exception e) {
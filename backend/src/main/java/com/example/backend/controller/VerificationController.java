@@ -1,15 +1,21 @@
 package com.example.backend.controller;
 
+import com.example.backend.entity.OneTimeToken;
 import com.example.backend.entity.User;
 import com.example.backend.payload.response.MessageResponse;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.security.RateLimiter;
+import com.example.backend.service.EmailService;
+import com.example.backend.service.OneTimeTokenService;
+import com.example.backend.service.UserActivityService;
+import com.example.backend.service.UserCache;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.Optional;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/verify-email")  // Change this to match the frontend URL
@@ -18,34 +24,46 @@ public class VerificationController {
     @Autowired
     private UserRepository userRepository;
 
-    public VerificationController(UserRepository userRepository) {
+    private final UserCache userCache;
+    private final UserActivityService userActivityService;
+    private final EmailService emailService;
+    private final RateLimiter rateLimiter;
+    private final OneTimeTokenService tokenService;
+
+    public VerificationController(UserRepository userRepository, UserCache userCache,
+                                  UserActivityService userActivityService, EmailService emailService,
+                                  RateLimiter rateLimiter, OneTimeTokenService tokenService) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.userActivityService = userActivityService;
+        this.emailService = emailService;
+        this.rateLimiter = rateLimiter;
+        this.tokenService = tokenService;
     }
 
     @GetMapping
     public ResponseEntity<?> verifyEmail(@RequestParam String token) {
-        Optional<User> userOptional = userRepository.findByVerificationToken(token);
+        Optional<User> userOptional = tokenService.redeem(token, OneTimeToken.Purpose.EMAIL_VERIFICATION)
+                .flatMap(userRepository::findById);
         
         if (userOptional.isEmpty()) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid verification token."));
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid or expired verification token."));
         }
         
         User user = userOptional.get();
         
-        if (user.getVerificationTokenExpiry().isBefore(LocalDateTime.now())) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Verification token has expired."));
-        }
-        
         user.setEmailVerified(true);
-        user.setVerificationToken(null);
-        user.setVerificationTokenExpiry(null);
         userRepository.save(user);
+        userCache.evict(user);
+        
+        userActivityService.logActivity(user, "EMAIL_VERIFIED", "User verified their email address");
         
         return ResponseEntity.ok(new MessageResponse("Email verified successfully!"));
     }
     
     @PostMapping("/resend")
-    public ResponseEntity<?> resendVerificationEmail(@RequestBody String email) {
+    public ResponseEntity<?> resendVerificationEmail(@RequestBody String email, HttpServletRequest request) {
+        rateLimiter.check(RateLimiter.Action.RESEND_VERIFICATION, request, email);
         Optional<User> userOptional = userRepository.findByEmail(email);
         
         if (userOptional.isEmpty()) {
@@ -59,14 +77,11 @@ public class VerificationController {
             return ResponseEntity.badRequest().body(new MessageResponse("Error: Email is already verified."));
         }
         
-        // Generate new verification token
-        String verificationToken = UUID.randomUUID().toString();
-        user.setVerificationToken(verificationToken);
-        user.setVerificationTokenExpiry(LocalDateTime.now().plusDays(1));
-        userRepository.save(user);
+        // Generate new verification token, replacing the previous one
+        String verificationToken = tokenService.issue(user.getId(), OneTimeToken.Purpose.EMAIL_VERIFICATION, Duration.ofDays(1));
         
-        // Send verification email
-        // This would be handled by the EmailService in a real implementation
+        // Queue verification email
+        emailService.sendVerificationEmail(user.getEmail(), verificationToken);
         
         return ResponseEntity.ok(new MessageResponse("Verification email sent successfully!"));
     }
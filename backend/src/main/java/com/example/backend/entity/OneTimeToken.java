@@ -0,0 +1,61 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single-use token sent by email. Only the SHA-256 of the token is stored, so a leaked
+ * table cannot be replayed.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "one_time_tokens")
+public class OneTimeToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Purpose purpose;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public OneTimeToken(byte[] tokenHash, Purpose purpose, Long userId, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.purpose = purpose;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public enum Purpose {
+        EMAIL_VERIFICATION("v"),
+        PASSWORD_RESET("r");
+
+        private final String prefix;
+
+        Purpose(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+    }
+}
@@ -6,7 +6,6 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -39,14 +38,6 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private boolean emailVerified = false;
     
-    private String verificationToken;
-    
-    private LocalDateTime verificationTokenExpiry;
-    
-    private String resetPasswordToken;
-    
-    private LocalDateTime resetPasswordTokenExpiry;
-    
     private String twoFactorSecret;
     
     @Column(nullable = false)
@@ -0,0 +1,33 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "user_daily_stats")
+public class UserDailyStats {
+
+    @Id
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private long signups;
+
+    @Column(nullable = false)
+    private long verifications;
+
+    @Column(nullable = false)
+    private long logins;
+
+    @Column(nullable = false)
+    private long activeUsers;
+
+    // Users registered up to and including this day
+    @Column(nullable = false)
+    private long totalUsers;
+}
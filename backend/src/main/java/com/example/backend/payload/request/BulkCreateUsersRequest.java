@@ -0,0 +1,12 @@
+package com.example.backend.payload.request;
+
+import com.example.backend.security.RegisterRequest;
+import lombok.Data;
+
+import java.util.List;
+
+// Items are validated one by one so that a bad item fails alone
+@Data
+public class BulkCreateUsersRequest {
+    private List<RegisterRequest> users;
+}
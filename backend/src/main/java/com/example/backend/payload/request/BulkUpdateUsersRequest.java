@@ -0,0 +1,10 @@
+package com.example.backend.payload.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkUpdateUsersRequest {
+    private List<UserUpdate> users;
+}
@@ -0,0 +1,10 @@
+package com.example.backend.payload.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkUserIdsRequest {
+    private List<Long> ids;
+}
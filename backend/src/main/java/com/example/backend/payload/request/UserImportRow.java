@@ -0,0 +1,38 @@
+package com.example.backend.payload.request;
+
+import com.example.backend.security.RegisterRequest;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.Set;
+
+// One line of an NDJSON import or one record of a CSV import; unknown fields are ignored
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserImportRow {
+    private String username;
+
+    private String email;
+
+    private String password;
+
+    // A BCrypt hash from the source system, stored as-is instead of hashing password
+    private String passwordHash;
+
+    private String firstName;
+
+    private String lastName;
+
+    private Set<String> roles;
+
+    public RegisterRequest toRegisterRequest() {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setEmail(email);
+        request.setPassword(password);
+        request.setFirstName(firstName);
+        request.setLastName(lastName);
+        request.setRoles(roles);
+        return request;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.backend.payload.request;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.Set;
+
+// Null fields are left unchanged
+@Data
+public class UserUpdate {
+    @NotNull
+    private Long id;
+
+    @Size(max = 50)
+    private String firstName;
+
+    @Size(max = 50)
+    private String lastName;
+
+    @Size(max = 50)
+    @Email
+    private String email;
+
+    @Size(min = 6, max = 40)
+    private String password;
+
+    private Set<String> roles;
+
+    private Boolean enabled;
+
+    private Boolean emailVerified;
+}
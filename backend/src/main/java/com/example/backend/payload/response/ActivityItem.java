@@ -0,0 +1,17 @@
+package com.example.backend.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class ActivityItem {
+    private Long id;
+    private String activityType;
+    private String description;
+    private LocalDateTime timestamp;
+    private String ipAddress;
+    private String userAgent;
+}
@@ -0,0 +1,25 @@
+package com.example.backend.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DISABLED,
+        DELETED,
+        FAILED
+    }
+
+    // Position of the item in the request
+    private int index;
+    private Long id;
+    private Status status;
+    private String message;
+}
@@ -0,0 +1,15 @@
+package com.example.backend.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkResult {
+    private int succeeded;
+    private int failed;
+    // One entry per request item, in request order
+    private List<BulkItemResult> items;
+}
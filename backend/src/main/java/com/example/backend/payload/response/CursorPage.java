@@ -0,0 +1,15 @@
+package com.example.backend.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    // Null when there are no further rows
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,15 @@
+package com.example.backend.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportRowError {
+    // Line of the upload the row starts on, counting the CSV header
+    private long line;
+    private String username;
+    private String message;
+}
@@ -0,0 +1,34 @@
+package com.example.backend.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportStatus {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private String id;
+    private State state;
+    private String format;
+    private long rowsRead;
+    private long created;
+    private long failed;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    // Why the whole import stopped, for FAILED
+    private String message;
+    // Row errors from the requested offset; only the first app.admin.import.max-errors are kept
+    private List<ImportRowError> errors;
+}
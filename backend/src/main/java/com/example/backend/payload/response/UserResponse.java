@@ -0,0 +1,39 @@
+package com.example.backend.payload.response;
+
+import com.example.backend.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// What the API returns for a single user; never the entity, which carries the password hash and 2FA secret
+@Data
+@AllArgsConstructor
+public class UserResponse {
+    private Long id;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private boolean enabled;
+    private boolean emailVerified;
+    private boolean twoFactorEnabled;
+    private List<String> roles;
+
+    public static UserResponse from(User user) {
+        List<String> roles = user.getRoles().stream()
+                .map(role -> role.getName().name())
+                .sorted()
+                .toList();
+        return new UserResponse(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.isEnabled(),
+                user.isEmailVerified(),
+                user.isTwoFactorEnabled(),
+                roles);
+    }
+}
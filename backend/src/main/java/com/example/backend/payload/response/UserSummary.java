@@ -0,0 +1,22 @@
+package com.example.backend.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private boolean enabled;
+    private boolean emailVerified;
+    private boolean twoFactorEnabled;
+    private LocalDateTime createdAt;
+    private List<String> roles;
+}
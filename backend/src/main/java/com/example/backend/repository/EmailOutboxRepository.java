@@ -0,0 +1,55 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // SKIP LOCKED lets several instances poll the outbox without handing out the same row twice
+    @Query(value = """
+            SELECT * FROM email_outbox
+            WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now
+            ORDER BY next_attempt_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<EmailOutboxMessage> lockDueMessages(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Variables can carry live verification and reset links or 2FA codes, so they go once a message is final
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = 'SENT', m.sentAt = :now, m.lastError = null, m.variables = '{}' WHERE m.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = 'PENDING', m.nextAttemptAt = :nextAttemptAt, m.lastError = :error WHERE m.id = :id")
+    int markRetry(@Param("id") Long id,
+                  @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                  @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = 'DEAD', m.lastError = :error, m.variables = '{}' WHERE m.id = :id")
+    int markDead(@Param("id") Long id, @Param("error") String error);
+
+    @Query("SELECT min(m.createdAt) FROM EmailOutboxMessage m WHERE m.status = 'PENDING'")
+    Optional<LocalDateTime> findOldestPendingCreatedAt();
+
+    long countByStatus(EmailOutboxMessage.Status status);
+
+    @Modifying
+    @Query(value = "DELETE FROM email_outbox WHERE id IN " +
+            "(SELECT id FROM email_outbox WHERE status = 'SENT' AND sent_at < :before LIMIT :batchSize)", nativeQuery = true)
+    int purgeSent(@Param("before") LocalDateTime before, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query(value = "DELETE FROM email_outbox WHERE id IN " +
+            "(SELECT id FROM email_outbox WHERE status = 'DEAD' AND created_at < :before LIMIT :batchSize)", nativeQuery = true)
+    int purgeDead(@Param("before") LocalDateTime before, @Param("batchSize") int batchSize);
+}
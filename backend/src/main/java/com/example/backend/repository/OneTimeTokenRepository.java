@@ -0,0 +1,30 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.OneTimeToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface OneTimeTokenRepository extends JpaRepository<OneTimeToken, Long> {
+
+    Optional<OneTimeToken> findByTokenHashAndPurpose(byte[] tokenHash, OneTimeToken.Purpose purpose);
+
+    @Modifying
+    @Query("DELETE FROM OneTimeToken t WHERE t.id = :id")
+    int deleteByIdReturningCount(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM OneTimeToken t WHERE t.userId = :userId AND t.purpose = :purpose")
+    int deleteByUserIdAndPurpose(@Param("userId") Long userId, @Param("purpose") OneTimeToken.Purpose purpose);
+
+    @Modifying
+    @Query(value = "DELETE FROM one_time_tokens WHERE id IN " +
+            "(SELECT id FROM one_time_tokens WHERE expires_at < :now LIMIT :batchSize)", nativeQuery = true)
+    int purgeExpired(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
@@ -4,18 +4,79 @@ import com.example.backend.entity.UserActivity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface UserActivityRepository extends JpaRepository<UserActivity, Long> {
+
+    // The feed queries walk idx_user_activities_user_ts_id; type filters are applied during the scan
+    String ACTIVITY_FEED_COLUMNS = """
+            SELECT a.id AS id,
+                   a.activity_type AS "activityType",
+                   a.description AS description,
+                   a.timestamp AS timestamp,
+                   a.ip_address AS "ipAddress",
+                   a.user_agent AS "userAgent"
+            FROM user_activities a
+            WHERE a.user_id = :userId
+            """;
+    
+    String ACTIVITY_FEED_SELECT = ACTIVITY_FEED_COLUMNS + """
+              AND (CAST(:type AS text) IS NULL OR a.activity_type = CAST(:type AS text))
+            """;
+    
+    @Query(value = ACTIVITY_FEED_SELECT + """
+            ORDER BY a.timestamp DESC, a.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ActivityView> findFeedPage(@Param("userId") Long userId,
+                                    @Param("type") String type,
+                                    @Param("limit") int limit);
     
-    Page<UserActivity> findByUserIdOrderByTimestampDesc(Long userId, Pageable pageable);
+    @Query(value = ACTIVITY_FEED_SELECT + """
+              AND (a.timestamp, a.id) < (:timestamp, :id)
+            ORDER BY a.timestamp DESC, a.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ActivityView> findFeedPageBefore(@Param("userId") Long userId,
+                                          @Param("type") String type,
+                                          @Param("timestamp") LocalDateTime timestamp,
+                                          @Param("id") Long id,
+                                          @Param("limit") int limit);
     
-    List<UserActivity> findTop10ByUserIdOrderByTimestampDesc(Long userId);
+    @Query(value = """
+            SELECT a.id FROM user_activities a
+            WHERE a.user_id = :userId
+              AND (CAST(:excludedType AS text) IS NULL OR a.activity_type <> CAST(:excludedType AS text))
+            ORDER BY a.timestamp DESC, a.id DESC
+            LIMIT 1
+            """, nativeQuery = true)
+    Optional<Long> findLatestActivityId(@Param("userId") Long userId, @Param("excludedType") String excludedType);
+    
+    @Query(value = ACTIVITY_FEED_COLUMNS + """
+              AND a.activity_type <> :excludedType
+            ORDER BY a.timestamp DESC, a.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ActivityView> findFeedPageExcludingType(@Param("userId") Long userId,
+                                                 @Param("excludedType") String excludedType,
+                                                 @Param("limit") int limit);
     
     List<UserActivity> findByUserIdAndTimestampBetweenOrderByTimestampDesc(
             Long userId, LocalDateTime start, LocalDateTime end);
     
     Page<UserActivity> findByActivityTypeOrderByTimestampDesc(String activityType, Pageable pageable);
+
+    interface ActivityView {
+        Long getId();
+        String getActivityType();
+        String getDescription();
+        LocalDateTime getTimestamp();
+        String getIpAddress();
+        String getUserAgent();
+    }
 }
@@ -0,0 +1,86 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.UserDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserDailyStatsRepository extends JpaRepository<UserDailyStats, LocalDate> {
+
+    Optional<UserDailyStats> findTopByOrderByDayDesc();
+
+    @Query("SELECT max(s.day) FROM UserDailyStats s")
+    Optional<LocalDate> findLatestDay();
+
+    @Query(value = "SELECT CAST(least(min(created_at), now()) AS date) FROM users", nativeQuery = true)
+    Optional<LocalDate> findFirstSignupDay();
+
+    // Recomputes the rollup rows for [from, to) from users and user_activities in one pass
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_daily_stats (day, signups, verifications, logins, active_users, total_users)
+            SELECT d.day,
+                   coalesce(s.signups, 0),
+                   coalesce(a.verifications, 0),
+                   coalesce(a.logins, 0),
+                   coalesce(a.active_users, 0),
+                   (SELECT count(*) FROM users WHERE created_at < :from)
+                       + sum(coalesce(s.signups, 0)) OVER (ORDER BY d.day)
+            FROM (
+                SELECT CAST(g AS date) AS day
+                FROM generate_series(CAST(:from AS timestamp), CAST(:to AS timestamp) - interval '1 day', interval '1 day') g
+            ) d
+            LEFT JOIN (
+                SELECT CAST(created_at AS date) AS day, count(*) AS signups
+                FROM users
+                WHERE created_at >= :from AND created_at < :to
+                GROUP BY 1
+            ) s ON s.day = d.day
+            LEFT JOIN (
+                SELECT CAST(timestamp AS date) AS day,
+                       count(*) FILTER (WHERE activity_type = 'EMAIL_VERIFIED') AS verifications,
+                       count(*) FILTER (WHERE activity_type = 'LOGIN') AS logins,
+                       count(DISTINCT user_id) AS active_users
+                FROM user_activities
+                WHERE timestamp >= :from AND timestamp < :to
+                GROUP BY 1
+            ) a ON a.day = d.day
+            ON CONFLICT (day) DO UPDATE SET
+                signups = EXCLUDED.signups,
+                verifications = EXCLUDED.verifications,
+                logins = EXCLUDED.logins,
+                active_users = EXCLUDED.active_users,
+                total_users = EXCLUDED.total_users
+            """, nativeQuery = true)
+    int rollup(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(value = """
+            SELECT CAST(date_trunc(:bucket, CAST(day AS timestamp)) AS date) AS "bucketStart",
+                   sum(signups) AS signups,
+                   sum(verifications) AS verifications,
+                   sum(logins) AS logins,
+                   max(active_users) AS "peakDailyActiveUsers",
+                   max(total_users) AS "totalUsers"
+            FROM user_daily_stats
+            WHERE day >= :from AND day < :to
+            GROUP BY 1
+            ORDER BY 1
+            """, nativeQuery = true)
+    List<BucketStats> findBuckets(@Param("bucket") String bucket,
+                                  @Param("from") LocalDate from,
+                                  @Param("to") LocalDate to);
+
+    interface BucketStats {
+        LocalDate getBucketStart();
+        long getSignups();
+        long getVerifications();
+        long getLogins();
+        long getPeakDailyActiveUsers();
+        long getTotalUsers();
+    }
+}
@@ -2,14 +2,93 @@ package com.example.backend.repository;
 
 import com.example.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // Slim listing row; roles are folded into a comma-separated string in the same query
+    String USER_SUMMARY_SELECT = """
+            SELECT u.id AS id,
+                   u.username AS username,
+                   u.email AS email,
+                   u.first_name AS "firstName",
+                   u.last_name AS "lastName",
+                   u.enabled AS enabled,
+                   u.email_verified AS "emailVerified",
+                   u.two_factor_enabled AS "twoFactorEnabled",
+                   u.created_at AS "createdAt",
+                   (SELECT string_agg(r.name, ',' ORDER BY r.name)
+                    FROM user_roles ur
+                    JOIN roles r ON r.id = ur.role_id
+                    WHERE ur.user_id = u.id) AS roles
+            FROM users u
+            """;
+
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
-    Optional<User> findByVerificationToken(String token);
-    Optional<User> findByResetPasswordToken(String token);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
+
+    // Role membership is folded to one row per user first so each user is counted once per role
+    @Query(value = """
+            SELECT count(*) AS "totalUsers",
+                   count(*) FILTER (WHERE u.enabled) AS "activeUsers",
+                   count(*) FILTER (WHERE u.email_verified) AS "verifiedUsers",
+                   count(*) FILTER (WHERE ur.is_admin) AS "adminUsers",
+                   count(*) FILTER (WHERE ur.is_moderator) AS "moderatorUsers",
+                   count(*) FILTER (WHERE ur.is_user) AS "regularUsers"
+            FROM users u
+            LEFT JOIN (
+                SELECT ur.user_id,
+                       bool_or(r.name = 'ROLE_ADMIN') AS is_admin,
+                       bool_or(r.name = 'ROLE_MODERATOR') AS is_moderator,
+                       bool_or(r.name = 'ROLE_USER') AS is_user
+                FROM user_roles ur
+                JOIN roles r ON r.id = ur.role_id
+                GROUP BY ur.user_id
+            ) ur ON ur.user_id = u.id
+            """, nativeQuery = true)
+    UserStats aggregateStats();
+
+    @Query(value = USER_SUMMARY_SELECT + """
+            ORDER BY u.created_at, u.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UserSummaryView> findSummaryPage(@Param("limit") int limit);
+
+    @Query(value = USER_SUMMARY_SELECT + """
+            WHERE (u.created_at, u.id) > (:createdAt, :id)
+            ORDER BY u.created_at, u.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UserSummaryView> findSummaryPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               @Param("limit") int limit);
+
+    interface UserSummaryView {
+        Long getId();
+        String getUsername();
+        String getEmail();
+        String getFirstName();
+        String getLastName();
+        boolean getEnabled();
+        boolean getEmailVerified();
+        boolean getTwoFactorEnabled();
+        LocalDateTime getCreatedAt();
+        String getRoles();
+    }
+
+    interface UserStats {
+        long getTotalUsers();
+        long getActiveUsers();
+        long getVerifiedUsers();
+        long getAdminUsers();
+        long getModeratorUsers();
+        long getRegularUsers();
+    }
 }
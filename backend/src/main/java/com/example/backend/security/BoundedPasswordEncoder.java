@@ -0,0 +1,202 @@
+package com.example.backend.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs password encoding and verification on a fixed pool sized to the core count instead of
+ * on request threads. Work beyond the pool and its bounded queue is rejected immediately with
+ * {@link PasswordHashingRejectedException}, so a login burst cannot occupy every Tomcat worker.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private static final long BATCH_BACKOFF_MILLIS = 10;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Timer queueTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing on {} threads with a queue of {}", threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    // Only inspects the hash prefix and cost, so it stays on the caller's thread
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        encodeTimer = hashTimer(registry, "encode");
+        matchesTimer = hashTimer(registry, "matches");
+        queueTimer = Timer.builder("app.password.hash.queue")
+                .description("Time password hashing work waits for a hasher thread")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("app.password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(registry);
+        Gauge.builder("app.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hasher threads currently hashing")
+                .register(registry);
+        FunctionCounter.builder("app.password.hash.rejected", rejected, AtomicLong::get)
+                .description("Hashing requests rejected because the pool and queue were full")
+                .register(registry);
+    }
+
+    private static Timer hashTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("app.password.hash")
+                .description("Time spent in the password encoder, excluding queueing")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Encodes a batch of passwords on the pool, keeping at most one task per hasher thread in
+     * flight so the queue stays free for interactive logins. While logins have the queue full,
+     * it waits on its own oldest task, or backs off briefly when it has none, rather than being
+     * rejected. Results are in input order.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        int window = executor.getMaximumPoolSize();
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        Deque<Future<String>> inFlight = new ArrayDeque<>(window);
+        for (CharSequence rawPassword : rawPasswords) {
+            // Only a hint: logins can still fill the queue before the submit below
+            while (!inFlight.isEmpty()
+                    && (inFlight.size() == window || executor.getQueue().remainingCapacity() == 0)) {
+                encoded.add(await(inFlight.removeFirst()));
+            }
+            Future<String> future;
+            while ((future = trySubmit(() -> delegate.encode(rawPassword), encodeTimer)) == null) {
+                if (inFlight.isEmpty()) {
+                    backOff();
+                } else {
+                    encoded.add(await(inFlight.removeFirst()));
+                }
+            }
+            inFlight.addLast(future);
+        }
+        while (!inFlight.isEmpty()) {
+            encoded.add(await(inFlight.removeFirst()));
+        }
+        return encoded;
+    }
+
+    private <T> T run(Callable<T> task, Timer timer) {
+        return await(submit(task, timer));
+    }
+
+    private <T> Future<T> submit(Callable<T> task, Timer timer) {
+        Future<T> future = trySubmit(task, timer);
+        if (future == null) {
+            rejected.incrementAndGet();
+            throw new PasswordHashingRejectedException();
+        }
+        return future;
+    }
+
+    /** Returns null if the pool and queue are full. */
+    private <T> Future<T> trySubmit(Callable<T> task, Timer timer) {
+        long submittedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    record(startedAt - submittedAt, System.nanoTime() - startedAt, timer);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (executor.isShutdown()) {
+                throw new IllegalStateException("Password hashing pool is shut down", e);
+            }
+            return null;
+        }
+    }
+
+    private static void backOff() {
+        try {
+            Thread.sleep(BATCH_BACKOFF_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void record(long queueNanos, long hashNanos, Timer timer) {
+        if (timer != null) {
+            timer.record(hashNanos, TimeUnit.NANOSECONDS);
+            queueTimer.record(queueNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.backend.security;
 
+import com.example.backend.entity.User;
+import com.example.backend.service.UserCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,10 +23,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserDetailsService userDetailsService;
+    private final UserCache userCache;
 
-    public JwtAuthenticationFilter(JwtUtils jwtUtils, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtils jwtUtils, UserDetailsService userDetailsService, UserCache userCache) {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
+        this.userCache = userCache;
     }
 
     @Override
@@ -31,13 +37,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateToken(jwt)) {
-                String username = jwtUtils.extractUsername(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Claims claims = jwt != null ? jwtUtils.parseClaims(jwt) : null;
+            if (claims != null) {
+                UserPrincipal principal = resolvePrincipal(claims);
                 
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -49,6 +55,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserPrincipal resolvePrincipal(Claims claims) {
+        if (jwtUtils.isStateless()) {
+            UserPrincipal principal = UserPrincipal.fromClaims(claims);
+            // Claims issued before a role change or disable must be re-checked
+            if (principal != null && !userCache.isModifiedSince(principal.getId(), claims.getIssuedAt().getTime())) {
+                return principal;
+            }
+        }
+
+        // Database-backed mode, a stale token, or one issued before the userId claim existed
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        if (!(userDetails instanceof User user)) {
+            throw new IllegalStateException("Unexpected principal type: " + userDetails.getClass());
+        }
+        if (!user.isEnabled()) {
+            throw new DisabledException("User account is disabled");
+        }
+        return UserPrincipal.fromUser(user);
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
         if (headerAuth != null && headerAuth.startsWith("Bearer ")) {
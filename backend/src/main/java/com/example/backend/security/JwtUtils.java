@@ -4,6 +4,10 @@ import com.example.backend.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -12,11 +16,12 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
-public class JwtUtils {
+public class JwtUtils implements MeterBinder {
 
     @Value("${jwt.secret}")
     private String secret;
@@ -24,6 +29,45 @@ public class JwtUtils {
     @Value("${jwt.expiration}")
     private int expiration;
 
+    // When true, the filter trusts the signed claims and skips the user lookup
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
+
+    // Decoded once; the parser is immutable and safe to share between threads
+    private Key signKey;
+    private JwtParser parser;
+
+    // Unset until Micrometer binds this component, e.g. in benchmarks
+    private Timer validTimer;
+    private Timer expiredTimer;
+    private Timer invalidTimer;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
+        this.signKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder().setSigningKey(signKey).build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        validTimer = verifyTimer(registry, "valid");
+        expiredTimer = verifyTimer(registry, "expired");
+        invalidTimer = verifyTimer(registry, "invalid");
+    }
+
+    private static Timer verifyTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("app.jwt.verify")
+                .description("Time to verify a bearer token's signature and parse its claims")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public boolean isStateless() {
+        return stateless;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -38,19 +82,39 @@ public class JwtUtils {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSignKey())
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signKey;
+    }
+
+    /**
+     * Verifies the token and returns its claims in a single parse, or null if the
+     * token is malformed, expired or carries a bad signature.
+     */
+    public Claims parseClaims(String token) {
+        long start = System.nanoTime();
+        Claims claims = null;
+        Timer timer = invalidTimer;
+        try {
+            claims = extractAllClaims(token);
+            timer = validTimer;
+        } catch (ExpiredJwtException e) {
+            timer = expiredTimer;
+        } catch (JwtException | IllegalArgumentException e) {
+            // Counted as invalid
+        }
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return claims;
     }
 
     public String generateToken(User userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", userDetails.getId());
+
         // Add roles to the JWT claims
         claims.put("roles", userDetails.getAuthorities().stream()
                 .map(Object::toString)
@@ -76,12 +140,7 @@ public class JwtUtils {
     }
 
     public Boolean validateToken(String token) {
-        try {
-            Jwts.parser().setSigningKey(getSignKey()).parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return parseClaims(token) != null;
     }
 
     private Boolean isTokenExpired(String token) {
@@ -0,0 +1,12 @@
+package com.example.backend.security;
+
+/**
+ * Thrown when the password-hashing executor is saturated and a request cannot be admitted.
+ * Mapped to 503 Service Unavailable so clients back off instead of queueing behind a burst.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException() {
+        super("Password hashing capacity exceeded");
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.backend.security;
+
+/**
+ * Thrown when a client or account is over its rate limit. Carries no stack trace so that
+ * rejecting a flood of requests stays cheap.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        super("Rate limit exceeded", null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
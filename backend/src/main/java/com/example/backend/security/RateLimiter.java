@@ -0,0 +1,233 @@
+package com.example.backend.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token-bucket limits for the endpoints that cost BCrypt work or send email, applied per
+ * client IP and per username/email. Each bucket is a single atomic "theoretical arrival time"
+ * (GCRA), so checks are lock-free; buckets that have refilled completely carry no state and
+ * are dropped by the sweep.
+ *
+ * <p>The client IP is {@link HttpServletRequest#getRemoteAddr()}. Behind a proxy, Tomcat's
+ * RemoteIpValve ({@code server.forward-headers-strategy=native}) rewrites it from
+ * X-Forwarded-For, but only for requests arriving from a trusted proxy address.
+ */
+@Component
+public class RateLimiter implements MeterBinder {
+
+    public enum Action {
+        LOGIN("login", "20/1m", "5/1m"),
+        VERIFY_TWO_FACTOR("verify-2fa", "20/1m", "10/5m"),
+        FORGOT_PASSWORD("forgot-password", "5/10m", "3/1h"),
+        RESEND_VERIFICATION("resend-verification", "5/10m", "3/1h");
+
+        private final String key;
+        private final String defaultPerIp;
+        private final String defaultPerIdentity;
+
+        Action(String key, String defaultPerIp, String defaultPerIdentity) {
+            this.key = key;
+            this.defaultPerIp = defaultPerIp;
+            this.defaultPerIdentity = defaultPerIdentity;
+        }
+    }
+
+    private record BucketKey(Action action, boolean perIp, String value) {
+    }
+
+    private static final class Decisions {
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+
+    /** Capacity tokens refilled evenly over the period, as a GCRA emission interval and burst tolerance. */
+    private record Limit(long intervalNanos, long toleranceNanos) {
+
+        static Limit parse(String spec) {
+            String[] parts = spec.split("/", 2);
+            long capacity = Long.parseLong(parts[0].trim());
+            long periodNanos = DurationStyle.detectAndParse(parts[1].trim()).toNanos();
+            long interval = periodNanos / capacity;
+            return new Limit(interval, interval * (capacity - 1));
+        }
+    }
+
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final Map<Action, Limit> perIp = new EnumMap<>(Action.class);
+    private final Map<Action, Limit> perIdentity = new EnumMap<>(Action.class);
+    private final ConcurrentHashMap<BucketKey, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final Map<Action, Decisions> ipDecisions = new EnumMap<>(Action.class);
+    private final Map<Action, Decisions> identityDecisions = new EnumMap<>(Action.class);
+    private final LongAdder evictedIdle = new LongAdder();
+    private final LongAdder evictedForCapacity = new LongAdder();
+
+    public RateLimiter(Environment environment,
+                       @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${app.rate-limit.max-buckets:100000}") int maxBuckets) {
+        this.enabled = enabled;
+        this.maxBuckets = maxBuckets;
+        for (Action action : Action.values()) {
+            String prefix = "app.rate-limit." + action.key;
+            perIp.put(action, Limit.parse(environment.getProperty(prefix + ".per-ip", action.defaultPerIp)));
+            perIdentity.put(action, Limit.parse(environment.getProperty(prefix + ".per-identity", action.defaultPerIdentity)));
+            ipDecisions.put(action, new Decisions());
+            identityDecisions.put(action, new Decisions());
+        }
+    }
+
+    /**
+     * Takes one token from the IP bucket and, if an identity is given, from the identity bucket.
+     *
+     * @throws RateLimitExceededException if either bucket is empty
+     */
+    public void check(Action action, HttpServletRequest request, String identity) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+
+        take(new BucketKey(action, true, request.getRemoteAddr()), perIp.get(action), ipDecisions.get(action), now);
+        if (identity != null && !identity.isBlank()) {
+            String normalized = identity.trim().toLowerCase(Locale.ROOT);
+            take(new BucketKey(action, false, normalized), perIdentity.get(action), identityDecisions.get(action), now);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval:PT1M}")
+    public void sweep() {
+        long now = System.nanoTime();
+        // A bucket whose arrival time has passed is full again and indistinguishable from a new one
+        buckets.entrySet().removeIf(entry -> {
+            boolean idle = entry.getValue().get() - now <= 0;
+            if (idle) {
+                evictedIdle.increment();
+            }
+            return idle;
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Action action : Action.values()) {
+            decisionCounters(registry, action, "ip", ipDecisions.get(action));
+            decisionCounters(registry, action, "identity", identityDecisions.get(action));
+        }
+        Gauge.builder("app.rate-limit.buckets", buckets, Map::size)
+                .description("Rate-limit buckets currently tracked")
+                .register(registry);
+        evictionCounter(registry, "idle", evictedIdle);
+        evictionCounter(registry, "capacity", evictedForCapacity);
+    }
+
+    private static void decisionCounters(MeterRegistry registry, Action action, String keyType, Decisions decisions) {
+        decisionCounter(registry, action, keyType, "allowed", decisions.allowed);
+        decisionCounter(registry, action, keyType, "rejected", decisions.rejected);
+    }
+
+    private static void decisionCounter(MeterRegistry registry, Action action, String keyType, String outcome, LongAdder count) {
+        FunctionCounter.builder("app.rate-limit.decisions", count, LongAdder::sum)
+                .description("Rate-limit checks by action, bucket type and outcome")
+                .tag("action", action.key)
+                .tag("key_type", keyType)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static void evictionCounter(MeterRegistry registry, String reason, LongAdder count) {
+        FunctionCounter.builder("app.rate-limit.evictions", count, LongAdder::sum)
+                .description("Rate-limit buckets dropped, after refilling or to stay under max-buckets")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private void take(BucketKey key, Limit limit, Decisions decisions, long now) {
+        long waitNanos = acquire(key, limit, now);
+        if (waitNanos > 0) {
+            decisions.rejected.increment();
+            throw new RateLimitExceededException(toRetryAfterSeconds(waitNanos));
+        }
+        decisions.allowed.increment();
+    }
+
+    /** Returns 0 if a token was taken, otherwise how long until one is available. */
+    private long acquire(BucketKey key, Limit limit, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                makeRoom(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long arrival = bucket.get();
+            long start = arrival - now > 0 ? arrival : now;
+            long wait = start - now - limit.toleranceNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, start + limit.intervalNanos())) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops refilled buckets and, if the map is still full, the quarter of the arrival-time
+     * range closest to refilling. Those buckets have the least debt, so forgetting them costs
+     * little, while a client that has used up its bucket keeps its limit.
+     */
+    private void makeRoom(long now) {
+        // Another thread already evicting will free enough room for this key too
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            sweep();
+            if (buckets.size() < maxBuckets) {
+                return;
+            }
+            long oldest = Long.MAX_VALUE;
+            long newest = Long.MIN_VALUE;
+            for (AtomicLong bucket : buckets.values()) {
+                long debt = bucket.get() - now;
+                oldest = Math.min(oldest, debt);
+                newest = Math.max(newest, debt);
+            }
+            long threshold = oldest + (newest - oldest) / 4;
+            buckets.values().removeIf(bucket -> {
+                boolean evict = bucket.get() - now <= threshold;
+                if (evict) {
+                    evictedForCapacity.increment();
+                }
+                return evict;
+            });
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+}
@@ -1,26 +1,41 @@
 package com.example.backend.security;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
-import com.example.backend.repository.UserRepository;
+import com.example.backend.service.UserCache;
+import jakarta.servlet.DispatcherType;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -29,12 +44,49 @@ public class SecurityConfig {
 
     private final JwtAuthEntryPoint authEntryPoint;
     private final JwtUtils jwtUtils;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
-    public SecurityConfig(JwtAuthEntryPoint authEntryPoint, JwtUtils jwtUtils, UserRepository userRepository) {
+    public SecurityConfig(JwtAuthEntryPoint authEntryPoint, JwtUtils jwtUtils, UserCache userCache) {
         this.authEntryPoint = authEntryPoint;
         this.jwtUtils = jwtUtils;
-        this.userRepository = userRepository;
+        this.userCache = userCache;
+    }
+
+    /**
+     * Actuator endpoints get their own chain. Health stays open for load balancers; metrics and
+     * the Prometheus scrape need an admin token or, when configured, the scrape credentials
+     * over HTTP Basic.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(
+            HttpSecurity http,
+            @Value("${app.metrics.scrape-username:}") String scrapeUsername,
+            @Value("${app.metrics.scrape-password:}") String scrapePassword) throws Exception {
+        http
+            .securityMatcher(EndpointRequest.toAnyEndpoint())
+            .csrf(AbstractHttpConfigurer::disable)
+            .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(authEntryPoint))
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                .anyRequest().hasAnyRole("ADMIN", "METRICS")
+            )
+            .addFilterBefore(jwtAuthenticationFilter(userDetailsService(userCache)), UsernamePasswordAuthenticationFilter.class);
+
+        if (!scrapeUsername.isBlank()) {
+            // Kept out of the user table and the application's AuthenticationManager
+            DaoAuthenticationProvider provider = new DaoAuthenticationProvider(
+                    PasswordEncoderFactories.createDelegatingPasswordEncoder());
+            provider.setUserDetailsService(new InMemoryUserDetailsManager(User.withUsername(scrapeUsername)
+                    .password(scrapePassword.startsWith("{") ? scrapePassword : "{noop}" + scrapePassword)
+                    .roles("METRICS")
+                    .build()));
+            http
+                .httpBasic(basic -> basic.authenticationEntryPoint(authEntryPoint))
+                .authenticationManager(new ProviderManager(provider));
+        }
+        return http.build();
     }
 
     @Bean
@@ -49,6 +101,8 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             .and()
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches finish streams that were authorized when they were opened
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/verify/**").permitAll()
                 .requestMatchers("/verify-email").permitAll()  // Make sure this matches exactly
@@ -61,7 +115,7 @@ public class SecurityConfig {
                 // All other requests need authentication
                 .anyRequest().authenticated()
             )
-            .addFilterBefore(jwtAuthenticationFilter(userDetailsService(userRepository)), UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter(userDetailsService(userCache)), UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
@@ -70,7 +124,7 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:5173")); // Update with your frontend URL
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token"));
+        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token", "last-event-id"));
         configuration.setExposedHeaders(Arrays.asList("x-auth-token"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -84,19 +138,39 @@ public class SecurityConfig {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
+    /**
+     * New hashes use the configured algorithm and cost; existing hashes, including legacy
+     * unprefixed BCrypt ones, still match and are re-encoded on the next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${app.security.password.algorithm:bcrypt}") String algorithm,
+            @Value("${app.security.password.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${app.security.password.hash-threads:0}") int hashThreads,
+            @Value("${app.security.password.hash-queue-capacity:64}") int hashQueueCapacity) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalStateException("Unsupported password algorithm: " + algorithm);
+        }
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, threads, hashQueueCapacity);
     }
 
     @Bean
-    public UserDetailsService userDetailsService(UserRepository userRepository) {
-        return username -> userRepository.findByUsername(username)
+    public UserDetailsService userDetailsService(UserCache userCache) {
+        return username -> userCache.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter(UserDetailsService userDetailsService) {
-        return new JwtAuthenticationFilter(jwtUtils, userDetailsService);
+        return new JwtAuthenticationFilter(jwtUtils, userDetailsService, userCache);
     }
 }
@@ -0,0 +1,95 @@
+package com.example.backend.security;
+
+import com.example.backend.entity.User;
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Lightweight authenticated principal carried in the security context for
+ * JWT-authenticated requests. Holds only what the token vouches for; controllers
+ * that need the full profile load the {@link User} by id.
+ */
+@Getter
+public class UserPrincipal implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final boolean emailVerified;
+    private final boolean twoFactorEnabled;
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(Long id, String username, boolean emailVerified,
+                         boolean twoFactorEnabled, List<GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.emailVerified = emailVerified;
+        this.twoFactorEnabled = twoFactorEnabled;
+        this.authorities = authorities;
+    }
+
+    public static UserPrincipal fromUser(User user) {
+        return new UserPrincipal(
+                user.getId(),
+                user.getUsername(),
+                user.isEmailVerified(),
+                user.isTwoFactorEnabled(),
+                List.copyOf(user.getAuthorities()));
+    }
+
+    // Returns null when the token predates the userId claim
+    public static UserPrincipal fromClaims(Claims claims) {
+        Number userId = claims.get("userId", Number.class);
+        if (userId == null) {
+            return null;
+        }
+
+        List<?> roles = claims.get("roles", List.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toUnmodifiableList());
+
+        return new UserPrincipal(
+                userId.longValue(),
+                claims.getSubject(),
+                Boolean.TRUE.equals(claims.get("emailVerified", Boolean.class)),
+                Boolean.TRUE.equals(claims.get("twoFactorEnabled", Boolean.class)),
+                authorities);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly partitions of user_activities: creates them ahead of need, and once
+ * a month falls out of the retention window rolls it up into user_activity_daily_counts and
+ * drops the partition, instead of deleting rows. Also converts a pre-partitioning table in
+ * place on first start.
+ *
+ * <p>Rows outside every monthly range (a skewed clock, an imported history) land in the
+ * DEFAULT partition instead of failing the insert. They move into their month's partition
+ * when it is created, and are rolled up with the expired months otherwise.
+ */
+@Component
+@DependsOnDatabaseInitialization
+public class ActivityPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityPartitionManager.class);
+
+    private static final String PARENT = "user_activities";
+    private static final String DEFAULT_PARTITION = PARENT + "_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARENT + "_p(\\d{6})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final Resource schema;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public ActivityPartitionManager(JdbcTemplate jdbcTemplate,
+                                    DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${spring.sql.init.schema-locations:classpath:schema.sql}") Resource schema,
+                                    @Value("${app.activity.partitions-ahead:3}") int monthsAhead,
+                                    @Value("${app.activity.retention-months:6}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.schema = schema;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @PostConstruct
+    void init() {
+        if ("r".equals(jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, PARENT))) {
+            transactionTemplate.executeWithoutResult(status -> convertToPartitioned());
+        }
+        ensurePartitions(YearMonth.now());
+    }
+
+    @Scheduled(cron = "${app.activity.partition-maintenance-cron:0 15 3 * * *}")
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        ensurePartitions(current);
+
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        for (YearMonth month : expiredPartitions(listPartitions(), oldestKept)) {
+            transactionTemplate.executeWithoutResult(status -> rollUpAndDrop(month));
+        }
+        transactionTemplate.executeWithoutResult(status -> rollUpExpiredDefaultRows(oldestKept));
+    }
+
+    /**
+     * Months whose partitions lie entirely before the oldest month kept.
+     */
+    static List<YearMonth> expiredPartitions(List<String> partitionNames, YearMonth oldestKept) {
+        return partitionNames.stream()
+                .map(ActivityPartitionManager::monthOf)
+                .flatMap(Optional::stream)
+                .filter(month -> month.isBefore(oldestKept))
+                .sorted()
+                .toList();
+    }
+
+    static Optional<YearMonth> monthOf(String partitionName) {
+        Matcher matcher = PARTITION_NAME.matcher(partitionName);
+        return matcher.matches() ? Optional.of(YearMonth.parse(matcher.group(1), SUFFIX)) : Optional.empty();
+    }
+
+    void ensurePartitions(YearMonth current) {
+        // Created here rather than in schema.sql, which also runs before a legacy table is converted
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF " + PARENT + " DEFAULT");
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition)) {
+            return;
+        }
+        String range = "timestamp >= '" + month.atDay(1) + "' AND timestamp < '" + month.plusMonths(1).atDay(1) + "'";
+
+        // Postgres refuses a new range while the DEFAULT partition holds rows inside it, so
+        // those rows are parked, the partition created, and the rows re-inserted through the parent
+        transactionTemplate.executeWithoutResult(status -> {
+            int moved = jdbcTemplate.update("CREATE TEMP TABLE activities_to_move ON COMMIT DROP AS " +
+                    "SELECT * FROM " + DEFAULT_PARTITION + " WHERE " + range);
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + PARENT +
+                    " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            jdbcTemplate.update("INSERT INTO " + PARENT + " SELECT * FROM activities_to_move");
+            jdbcTemplate.execute("DROP TABLE activities_to_move");
+            if (moved > 0) {
+                log.info("Moved {} activities from {} into {}", moved, DEFAULT_PARTITION, partition);
+            }
+        });
+    }
+
+    private void rollUpAndDrop(YearMonth month) {
+        String partition = partitionName(month);
+        // Whole months are rolled up at once, so a rerun after a failed drop overwrites the same counts
+        int rows = jdbcTemplate.update(
+                "INSERT INTO user_activity_daily_counts (day, user_id, activity_type, activity_count) " +
+                "SELECT CAST(timestamp AS DATE), user_id, activity_type, COUNT(*) FROM " + partition +
+                " GROUP BY CAST(timestamp AS DATE), user_id, activity_type " +
+                "ON CONFLICT (day, user_id, activity_type) DO UPDATE SET activity_count = EXCLUDED.activity_count");
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + partition);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+        log.info("Rolled up {} into {} daily counts and dropped it", partition, rows);
+    }
+
+    // Added to the existing counts: the month's own partition may already have been rolled up
+    private void rollUpExpiredDefaultRows(YearMonth oldestKept) {
+        String expired = "timestamp < '" + oldestKept.atDay(1) + "'";
+        int rows = jdbcTemplate.update(
+                "INSERT INTO user_activity_daily_counts (day, user_id, activity_type, activity_count) " +
+                "SELECT CAST(timestamp AS DATE), user_id, activity_type, COUNT(*) FROM " + DEFAULT_PARTITION +
+                " WHERE " + expired + " GROUP BY CAST(timestamp AS DATE), user_id, activity_type " +
+                "ON CONFLICT (day, user_id, activity_type) " +
+                "DO UPDATE SET activity_count = user_activity_daily_counts.activity_count + EXCLUDED.activity_count");
+        if (rows > 0) {
+            int deleted = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE " + expired);
+            log.info("Rolled up {} expired activities from {} into {} daily counts", deleted, DEFAULT_PARTITION, rows);
+        }
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass(?)", String.class, PARENT);
+    }
+
+    /**
+     * Moves a plain user_activities table aside, lets schema.sql create the partitioned table
+     * (and re-point the views at it), then copies the rows over.
+     */
+    private void convertToPartitioned() {
+        String legacy = PARENT + "_unpartitioned";
+        log.info("Converting {} to a partitioned table", PARENT);
+
+        jdbcTemplate.execute("LOCK TABLE " + PARENT + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " RENAME TO " + legacy);
+        for (String index : jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema() AND tablename = ?", String.class, legacy)) {
+            jdbcTemplate.execute("ALTER INDEX " + index + " RENAME TO " + legacyName(index));
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE IF EXISTS " + PARENT + "_id_seq RENAME TO " + legacy + "_id_seq");
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        ScriptUtils.executeSqlScript(connection, schema);
+
+        ensurePartitions(YearMonth.now());
+        LocalDate oldest = jdbcTemplate.queryForObject(
+                "SELECT CAST(MIN(timestamp) AS DATE) FROM " + legacy, LocalDate.class);
+        if (oldest != null) {
+            for (YearMonth month = YearMonth.from(oldest); month.isBefore(YearMonth.now()); month = month.plusMonths(1)) {
+                createPartition(month);
+            }
+        }
+
+        int copied = jdbcTemplate.update(
+                "INSERT INTO " + PARENT + " (id, user_id, activity_type, description, timestamp, ip_address, user_agent) " +
+                "SELECT id, user_id, activity_type, description, timestamp, ip_address, user_agent FROM " + legacy);
+        jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence(?, 'id'), " +
+                "(SELECT COALESCE(MAX(id), 0) + 1 FROM " + PARENT + "), false)", Long.class, PARENT);
+        jdbcTemplate.execute("DROP TABLE " + legacy);
+        log.info("Copied {} activities into monthly partitions", copied);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARENT + "_p" + month.format(SUFFIX);
+    }
+
+    private static String legacyName(String index) {
+        String name = index + "_unpartitioned";
+        return name.length() > 63 ? name.substring(0, 63) : name;
+    }
+}
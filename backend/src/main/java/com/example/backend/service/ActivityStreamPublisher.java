@@ -0,0 +1,307 @@
+package com.example.backend.service;
+
+import com.example.backend.config.WorkerThreads;
+import com.example.backend.payload.response.ActivityEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans newly logged activities out to Server-Sent Events subscribers. Each subscriber has
+ * a bounded buffer drained by a sender task, so a slow client loses its oldest events
+ * instead of holding up the request that logged the activity. The most recent events are
+ * kept for replay when a client reconnects with Last-Event-ID.
+ */
+@Component
+public class ActivityStreamPublisher implements MeterBinder {
+
+    private record Event(long sequence, ActivityEvent data) {
+    }
+
+    private final Executor senders;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final int replaySize;
+    private final long timeoutMillis;
+    private final long reconnectMillis;
+
+    // Event ids from an earlier run of the application cannot be replayed
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Object lock = new Object();
+    private final ArrayDeque<Event> recent = new ArrayDeque<>();
+    private long lastSequence;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Autowired
+    public ActivityStreamPublisher(WorkerThreads workerThreads,
+                                   @Value("${app.activity.stream.max-subscribers:100}") int maxSubscribers,
+                                   @Value("${app.activity.stream.buffer-size:256}") int bufferSize,
+                                   @Value("${app.activity.stream.replay-size:1000}") int replaySize,
+                                   @Value("${app.activity.stream.timeout:30m}") Duration timeout,
+                                   @Value("${app.activity.stream.reconnect-delay:3s}") Duration reconnectDelay) {
+        this(Executors.newCachedThreadPool(workerThreads.factory("activity-stream")),
+                maxSubscribers, bufferSize, replaySize, timeout, reconnectDelay);
+    }
+
+    ActivityStreamPublisher(Executor senders, int maxSubscribers, int bufferSize, int replaySize,
+                            Duration timeout, Duration reconnectDelay) {
+        this.senders = senders;
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.replaySize = Math.max(0, replaySize);
+        this.timeoutMillis = timeout.toMillis();
+        this.reconnectMillis = reconnectDelay.toMillis();
+    }
+
+    @PreDestroy
+    void stop() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+        if (senders instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Hands an accepted activity record to every matching subscriber. Only buffers are
+     * touched here; sending happens on the stream's own threads.
+     */
+    public void publish(UserActivityWriter.ActivityRecord record) {
+        ActivityEvent data = new ActivityEvent(record.userId(), record.activityType(), record.description(),
+                record.timestamp(), record.ipAddress(), record.userAgent());
+        // Sequence, replay history and fan-out change together so every subscriber sees ids in order
+        synchronized (lock) {
+            Event event = new Event(++lastSequence, data);
+            if (replaySize > 0) {
+                recent.addLast(event);
+                if (recent.size() > replaySize) {
+                    recent.removeFirst();
+                }
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Opens a stream of activities, optionally limited to one user and one activity type.
+     * Events after {@code lastEventId} are replayed first if they are still held; otherwise
+     * the stream starts with a "reset" event.
+     *
+     * @throws IllegalStateException if app.activity.stream.max-subscribers streams are open
+     */
+    public SseEmitter subscribe(Long userId, String type, String lastEventId) {
+        return subscribe(new SseEmitter(timeoutMillis), userId, type, lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long userId, String type, String lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, userId, type == null || type.isBlank() ? null : type);
+        synchronized (lock) {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new IllegalStateException("Too many activity streams are open, please try again later");
+            }
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(subscriber, parseSequence(lastEventId.trim()));
+            }
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscriber.schedule();
+        return emitter;
+    }
+
+    // Called with the lock held, before the subscriber receives live events
+    private void replay(Subscriber subscriber, long after) {
+        long oldest = recent.isEmpty() ? lastSequence + 1 : recent.peekFirst().sequence();
+        if (after < oldest - 1 || after > lastSequence) {
+            subscriber.reset = true;
+        }
+        for (Event event : recent) {
+            if (event.sequence() > after) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    // -1 for ids this run did not issue, so everything still held is replayed after a reset
+    private long parseSequence(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Comments keep proxies from closing idle connections and reveal clients that went away
+    @Scheduled(fixedDelayString = "${app.activity.stream.heartbeat:PT15S}")
+    void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.activity.stream.subscribers", subscribers, Set::size)
+                .description("Open activity streams")
+                .register(registry);
+        eventCounter(registry, "sent", sent);
+        eventCounter(registry, "dropped", dropped);
+    }
+
+    private static void eventCounter(MeterRegistry registry, String outcome, AtomicLong count) {
+        FunctionCounter.builder("app.activity.stream.events", count, AtomicLong::get)
+                .description("Activity stream events by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long userId;
+        private final String activityType;
+
+        // Guarded by this subscriber's monitor
+        private final ArrayDeque<Event> buffer = new ArrayDeque<>();
+        private boolean connected;
+        private boolean reset;
+        private long skipped;
+        private boolean sentSinceHeartbeat;
+        private boolean heartbeatDue;
+        private boolean scheduled;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter, Long userId, String activityType) {
+            this.emitter = emitter;
+            this.userId = userId;
+            this.activityType = activityType;
+        }
+
+        synchronized void offer(Event event) {
+            if (closed
+                    || userId != null && !userId.equals(event.data().getUserId())
+                    || activityType != null && !activityType.equals(event.data().getActivityType())) {
+                return;
+            }
+            if (buffer.size() >= bufferSize) {
+                buffer.removeFirst();
+                skipped++;
+                dropped.incrementAndGet();
+            }
+            buffer.addLast(event);
+            schedule();
+        }
+
+        synchronized void heartbeat() {
+            if (sentSinceHeartbeat) {
+                sentSinceHeartbeat = false;
+                return;
+            }
+            heartbeatDue = true;
+            schedule();
+        }
+
+        synchronized void schedule() {
+            if (scheduled || closed) {
+                return;
+            }
+            scheduled = true;
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        synchronized void close() {
+            closed = true;
+            buffer.clear();
+            subscribers.remove(this);
+        }
+
+        // Only one drain runs per subscriber, so events go out in buffer order
+        private void drain() {
+            try {
+                while (true) {
+                    SseEmitter.SseEventBuilder message;
+                    synchronized (this) {
+                        message = closed ? null : next();
+                        if (message == null) {
+                            scheduled = false;
+                            return;
+                        }
+                    }
+                    emitter.send(message);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client disconnected or the emitter already completed
+                close();
+            }
+        }
+
+        private SseEmitter.SseEventBuilder next() {
+            if (!connected) {
+                connected = true;
+                return SseEmitter.event().reconnectTime(reconnectMillis).comment("connected");
+            }
+            if (reset) {
+                reset = false;
+                return SseEmitter.event().name("reset")
+                        .data(Map.of("message", "Missed events are no longer available"), MediaType.APPLICATION_JSON);
+            }
+            if (skipped > 0) {
+                long count = skipped;
+                skipped = 0;
+                return SseEmitter.event().name("dropped").data(Map.of("count", count), MediaType.APPLICATION_JSON);
+            }
+            Event event = buffer.pollFirst();
+            if (event != null) {
+                sentSinceHeartbeat = true;
+                heartbeatDue = false;
+                sent.incrementAndGet();
+                return SseEmitter.event()
+                        .id(epoch + "-" + event.sequence())
+                        .name("activity")
+                        .data(event.data(), MediaType.APPLICATION_JSON);
+            }
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return null;
+        }
+    }
+}
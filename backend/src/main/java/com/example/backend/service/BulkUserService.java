@@ -0,0 +1,500 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Role;
+import com.example.backend.payload.request.UserUpdate;
+import com.example.backend.payload.response.BulkItemResult;
+import com.example.backend.payload.response.BulkResult;
+import com.example.backend.security.BoundedPasswordEncoder;
+import com.example.backend.security.RegisterRequest;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bulk user writes for admins. Every item is validated first and username/email uniqueness
+ * is checked for the whole request with one set-based query. Writes then go out in chunks,
+ * each chunk a JDBC batch in its own transaction; a chunk that fails is retried item by item
+ * so one bad row fails alone. Results are reported per item, in request order.
+ */
+@Service
+public class BulkUserService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkUserService.class);
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (username, email, password, first_name, last_name, enabled, email_verified) " +
+            "VALUES (?, ?, ?, ?, ?, TRUE, TRUE)";
+    private static final String INSERT_USER_ROLE_SQL = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    private static final String DELETE_USER_ROLES_SQL = "DELETE FROM user_roles WHERE user_id = ?";
+    private static final String UPDATE_USER_SQL =
+            "UPDATE users SET first_name = COALESCE(?, first_name), last_name = COALESCE(?, last_name), " +
+            "email = COALESCE(?, email), password = COALESCE(?, password), enabled = COALESCE(?, enabled), " +
+            "email_verified = COALESCE(?, email_verified), updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final RoleRegistry roleRegistry;
+    private final UserCache userCache;
+    private final EmailService emailService;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public BulkUserService(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           BoundedPasswordEncoder passwordEncoder,
+                           RoleRegistry roleRegistry,
+                           UserCache userCache,
+                           EmailService emailService,
+                           Validator validator,
+                           @Value("${app.admin.bulk.chunk-size:500}") int chunkSize,
+                           @Value("${app.admin.bulk.max-items:10000}") int maxItems) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.roleRegistry = roleRegistry;
+        this.userCache = userCache;
+        this.emailService = emailService;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Creates pre-verified, enabled users, like the single-user admin endpoint.
+     */
+    public BulkResult createUsers(List<RegisterRequest> users) {
+        checkSize(users);
+        return create(users, new String[users.size()], new HashSet<>(), new HashSet<>());
+    }
+
+    /**
+     * Creates one batch of an import. {@code passwordHashes} holds hashes supplied with the rows,
+     * used instead of hashing (and validating) {@code password}; the seen sets span the whole
+     * import so duplicates across batches are caught as well.
+     */
+    public BulkResult importUsers(List<RegisterRequest> users, String[] passwordHashes,
+                                 Set<String> seenUsernames, Set<String> seenEmails) {
+        return create(users, passwordHashes, seenUsernames, seenEmails);
+    }
+
+    private BulkResult create(List<RegisterRequest> users, String[] passwordHashes,
+                              Set<String> seenUsernames, Set<String> seenEmails) {
+        Results results = new Results(users.size());
+
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < users.size(); i++) {
+            RegisterRequest user = users.get(i);
+            String violation = firstViolation(user, passwordHashes[i] != null ? "password" : null);
+            if (violation != null) {
+                results.fail(i, null, violation);
+            } else if (!seenUsernames.add(user.getUsername())) {
+                results.fail(i, null, "Username appears more than once in the request");
+            } else if (!seenEmails.add(user.getEmail())) {
+                results.fail(i, null, "Email appears more than once in the request");
+            } else {
+                usernames.add(user.getUsername());
+                emails.add(user.getEmail());
+            }
+        }
+
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        if (!usernames.isEmpty()) {
+            jdbcTemplate.query("SELECT username, email FROM users WHERE username = ANY(?) OR email = ANY(?)",
+                    ps -> {
+                        ps.setArray(1, array(ps, "text", usernames));
+                        ps.setArray(2, array(ps, "text", emails));
+                    },
+                    rs -> {
+                        takenUsernames.add(rs.getString(1));
+                        takenEmails.add(rs.getString(2));
+                    });
+        }
+
+        List<Integer> pending = new ArrayList<>();
+        for (int i : results.open()) {
+            if (takenUsernames.contains(users.get(i).getUsername())) {
+                results.fail(i, null, "Username is already taken");
+            } else if (takenEmails.contains(users.get(i).getEmail())) {
+                results.fail(i, null, "Email is already in use");
+            } else {
+                pending.add(i);
+            }
+        }
+
+        String[] hashes = hashPasswords(pending, i -> passwordHashes[i] == null ? users.get(i).getPassword() : null, users.size());
+        for (int i : pending) {
+            if (passwordHashes[i] != null) {
+                hashes[i] = passwordHashes[i];
+            }
+        }
+        writeInChunks(pending, results, "create", chunk -> {
+            List<Long> ids = insertUsers(chunk, users, hashes);
+            for (int k = 0; k < chunk.size(); k++) {
+                results.succeed(chunk.get(k), ids.get(k), BulkItemResult.Status.CREATED);
+            }
+        });
+        return results.toResult();
+    }
+
+    /**
+     * Applies partial updates; null fields are left unchanged. Updated users are notified by
+     * email, as with the single-user endpoint.
+     */
+    public BulkResult updateUsers(List<UserUpdate> updates, Long adminId) {
+        checkSize(updates);
+        Results results = new Results(updates.size());
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < updates.size(); i++) {
+            UserUpdate update = updates.get(i);
+            String violation = firstViolation(update);
+            if (violation != null) {
+                results.fail(i, null, violation);
+            } else if (update.getId().equals(adminId)) {
+                results.fail(i, update.getId(), "Admins should update their own account through the user profile endpoint");
+            } else if (!ids.add(update.getId())) {
+                results.fail(i, update.getId(), "User appears more than once in the request");
+            }
+        }
+
+        // id -> {username, email}
+        Map<Long, String[]> existing = new HashMap<>();
+        if (!ids.isEmpty()) {
+            jdbcTemplate.query("SELECT id, username, email FROM users WHERE id = ANY(?)",
+                    ps -> ps.setArray(1, array(ps, "bigint", ids)),
+                    rs -> {
+                        existing.put(rs.getLong(1), new String[] {rs.getString(2), rs.getString(3)});
+                    });
+        }
+
+        Set<String> requestedEmails = new HashSet<>();
+        for (int i : results.open()) {
+            UserUpdate update = updates.get(i);
+            String[] current = existing.get(update.getId());
+            if (current == null) {
+                results.fail(i, update.getId(), "User not found");
+            } else if (update.getEmail() != null && !update.getEmail().equals(current[1])
+                    && !requestedEmails.add(update.getEmail())) {
+                results.fail(i, update.getId(), "Email appears more than once in the request");
+            }
+        }
+
+        Map<String, Long> emailOwners = new HashMap<>();
+        if (!requestedEmails.isEmpty()) {
+            jdbcTemplate.query("SELECT email, id FROM users WHERE email = ANY(?)",
+                    ps -> ps.setArray(1, array(ps, "text", requestedEmails)),
+                    rs -> {
+                        emailOwners.put(rs.getString(1), rs.getLong(2));
+                    });
+        }
+
+        List<Integer> pending = new ArrayList<>();
+        for (int i : results.open()) {
+            UserUpdate update = updates.get(i);
+            Long owner = update.getEmail() == null ? null : emailOwners.get(update.getEmail());
+            if (owner != null && !owner.equals(update.getId())) {
+                results.fail(i, update.getId(), "Email is already in use");
+            } else {
+                pending.add(i);
+            }
+        }
+
+        String[] hashes = hashPasswords(pending, i -> updates.get(i).getPassword(), updates.size());
+        writeInChunks(pending, results, "update", chunk -> {
+            updateChunk(chunk, updates, hashes, existing);
+            for (int index : chunk) {
+                results.succeed(index, updates.get(index).getId(), BulkItemResult.Status.UPDATED);
+            }
+        });
+        results.succeededIds().forEach(userCache::evict);
+        return results.toResult();
+    }
+
+    public BulkResult disableUsers(List<Long> ids, Long adminId) {
+        return applyToIds(ids, adminId, "disable", BulkItemResult.Status.DISABLED, chunk -> jdbcTemplate.query(
+                "UPDATE users SET enabled = FALSE, updated_at = CURRENT_TIMESTAMP WHERE id = ANY(?) RETURNING id",
+                ps -> ps.setArray(1, array(ps, "bigint", chunk)),
+                (rs, rowNum) -> rs.getLong(1)));
+    }
+
+    /**
+     * Deletes users and queues their deletion notices in the same transaction.
+     */
+    public BulkResult deleteUsers(List<Long> ids, Long adminId) {
+        return applyToIds(ids, adminId, "delete", BulkItemResult.Status.DELETED, chunk -> {
+            List<Long> deleted = new ArrayList<>();
+            Map<String, String> usernamesByEmail = new LinkedHashMap<>();
+            jdbcTemplate.query("DELETE FROM users WHERE id = ANY(?) RETURNING id, username, email",
+                    ps -> ps.setArray(1, array(ps, "bigint", chunk)),
+                    rs -> {
+                        deleted.add(rs.getLong(1));
+                        usernamesByEmail.put(rs.getString(3), rs.getString(2));
+                    });
+            emailService.sendAccountDeletionEmails(usernamesByEmail);
+            return deleted;
+        });
+    }
+
+    /**
+     * Disable and delete are single set-based statements per chunk; ids the statement did not
+     * touch are reported as not found.
+     */
+    private BulkResult applyToIds(List<Long> ids, Long adminId, String operation, BulkItemResult.Status status,
+                                  Function<List<Long>, List<Long>> statement) {
+        checkSize(ids);
+        Results results = new Results(ids.size());
+
+        Map<Long, Integer> indexById = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results.fail(i, null, "id: must not be null");
+            } else if (id.equals(adminId)) {
+                results.fail(i, id, "Admins cannot " + operation + " their own account through this endpoint");
+            } else if (indexById.putIfAbsent(id, i) != null) {
+                results.fail(i, id, "User appears more than once in the request");
+            }
+        }
+
+        List<Long> pending = new ArrayList<>(indexById.keySet());
+        for (List<Long> chunk : chunks(pending)) {
+            try {
+                Set<Long> affected = new HashSet<>(transactionTemplate.execute(tx -> statement.apply(chunk)));
+                for (Long id : chunk) {
+                    if (affected.contains(id)) {
+                        results.succeed(indexById.get(id), id, status);
+                    } else {
+                        results.fail(indexById.get(id), id, "User not found");
+                    }
+                }
+            } catch (DataAccessException e) {
+                log.warn("Bulk {} of {} users failed: {}", operation, chunk.size(), e.getMessage());
+                chunk.forEach(id -> results.fail(indexById.get(id), id, "Error: " + rootMessage(e)));
+            }
+        }
+        results.succeededIds().forEach(userCache::evict);
+        return results.toResult();
+    }
+
+    private List<Long> insertUsers(List<Integer> chunk, List<RegisterRequest> users, String[] hashes) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_USER_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        int index = chunk.get(i);
+                        RegisterRequest user = users.get(index);
+                        ps.setString(1, user.getUsername());
+                        ps.setString(2, user.getEmail());
+                        ps.setString(3, hashes[index]);
+                        ps.setString(4, user.getFirstName());
+                        ps.setString(5, user.getLastName());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunk.size();
+                    }
+                },
+                keys);
+
+        List<Long> ids = keys.getKeyList().stream()
+                .map(key -> ((Number) key.get("id")).longValue())
+                .toList();
+        List<Object[]> userRoles = new ArrayList<>();
+        for (int k = 0; k < chunk.size(); k++) {
+            for (Role role : roleRegistry.resolve(users.get(chunk.get(k)).getRoles())) {
+                userRoles.add(new Object[] {ids.get(k), role.getId()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE_SQL, userRoles);
+        return ids;
+    }
+
+    private void updateChunk(List<Integer> chunk, List<UserUpdate> updates, String[] hashes, Map<Long, String[]> existing) {
+        jdbcTemplate.batchUpdate(UPDATE_USER_SQL, chunk, chunk.size(), (ps, index) -> {
+            UserUpdate update = updates.get(index);
+            ps.setString(1, update.getFirstName());
+            ps.setString(2, update.getLastName());
+            ps.setString(3, update.getEmail());
+            ps.setString(4, hashes[index]);
+            ps.setObject(5, update.getEnabled(), Types.BOOLEAN);
+            ps.setObject(6, update.getEmailVerified(), Types.BOOLEAN);
+            ps.setLong(7, update.getId());
+        });
+
+        List<Object[]> cleared = new ArrayList<>();
+        List<Object[]> userRoles = new ArrayList<>();
+        Map<String, String> usernamesByEmail = new LinkedHashMap<>();
+        for (int index : chunk) {
+            UserUpdate update = updates.get(index);
+            if (update.getRoles() != null && !update.getRoles().isEmpty()) {
+                cleared.add(new Object[] {update.getId()});
+                for (Role role : roleRegistry.resolve(update.getRoles())) {
+                    userRoles.add(new Object[] {update.getId(), role.getId()});
+                }
+            }
+            String[] current = existing.get(update.getId());
+            usernamesByEmail.put(update.getEmail() != null ? update.getEmail() : current[1], current[0]);
+        }
+        if (!cleared.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_USER_ROLES_SQL, cleared);
+            jdbcTemplate.batchUpdate(INSERT_USER_ROLE_SQL, userRoles);
+        }
+        emailService.sendAccountUpdateEmails(usernamesByEmail);
+    }
+
+    /**
+     * Runs {@code write} for each chunk in its own transaction. If a chunk fails, its items are
+     * retried one at a time so only the offending rows are reported as failed.
+     */
+    private void writeInChunks(List<Integer> pending, Results results, String operation, ChunkWriter write) {
+        for (List<Integer> chunk : chunks(pending)) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> write.accept(chunk));
+            } catch (DataAccessException e) {
+                log.warn("Bulk {} of {} users failed, retrying individually: {}", operation, chunk.size(), e.getMessage());
+                for (int index : chunk) {
+                    try {
+                        transactionTemplate.executeWithoutResult(tx -> write.accept(List.of(index)));
+                    } catch (DataAccessException single) {
+                        results.fail(index, null, "Error: " + rootMessage(single));
+                    }
+                }
+            }
+        }
+    }
+
+    // Passwords are hashed in parallel on the password pool before any transaction opens
+    private String[] hashPasswords(List<Integer> pending, Function<Integer, String> password, int size) {
+        List<Integer> withPassword = pending.stream().filter(i -> password.apply(i) != null).toList();
+        List<String> encoded = passwordEncoder.encodeAll(withPassword.stream().map(password).toList());
+        String[] hashes = new String[size];
+        for (int k = 0; k < withPassword.size(); k++) {
+            hashes[withPassword.get(k)] = encoded.get(k);
+        }
+        return hashes;
+    }
+
+    private void checkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one item is required");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " items are allowed per request");
+        }
+    }
+
+    private String firstViolation(Object item) {
+        return firstViolation(item, null);
+    }
+
+    private String firstViolation(Object item, String skippedProperty) {
+        if (item == null) {
+            return "Item must not be null";
+        }
+        return validator.validate(item).stream()
+                .filter(violation -> !violation.getPropertyPath().toString().equals(skippedProperty))
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += chunkSize) {
+            chunks.add(items.subList(i, Math.min(i + chunkSize, items.size())));
+        }
+        return chunks;
+    }
+
+    private static Array array(PreparedStatement ps, String type, Collection<?> values) throws SQLException {
+        return ps.getConnection().createArrayOf(type, values.toArray());
+    }
+
+    private static String rootMessage(Exception e) {
+        return NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void accept(List<Integer> chunk);
+    }
+
+    private static final class Results {
+
+        private final BulkItemResult[] items;
+
+        Results(int size) {
+            this.items = new BulkItemResult[size];
+        }
+
+        void fail(int index, Long id, String message) {
+            items[index] = new BulkItemResult(index, id, BulkItemResult.Status.FAILED, message);
+        }
+
+        void succeed(int index, Long id, BulkItemResult.Status status) {
+            items[index] = new BulkItemResult(index, id, status, null);
+        }
+
+        // Indexes that have no result yet
+        List<Integer> open() {
+            List<Integer> open = new ArrayList<>();
+            for (int i = 0; i < items.length; i++) {
+                if (items[i] == null) {
+                    open.add(i);
+                }
+            }
+            return open;
+        }
+
+        List<Long> succeededIds() {
+            List<Long> ids = new ArrayList<>();
+            for (BulkItemResult item : items) {
+                if (item != null && item.getStatus() != BulkItemResult.Status.FAILED) {
+                    ids.add(item.getId());
+                }
+            }
+            return ids;
+        }
+
+        BulkResult toResult() {
+            int failed = 0;
+            for (BulkItemResult item : items) {
+                if (item.getStatus() == BulkItemResult.Status.FAILED) {
+                    failed++;
+                }
+            }
+            return new BulkResult(items.length - failed, failed, List.of(items));
+        }
+    }
+}
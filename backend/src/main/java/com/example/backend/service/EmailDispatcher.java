@@ -0,0 +1,238 @@
+package com.example.backend.service;
+
+import com.example.backend.config.WorkerThreads;
+import com.example.backend.entity.EmailOutboxMessage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the {@link EmailOutbox} and sends due messages on a bounded worker pool. Each worker
+ * hands its whole chunk to {@link JavaMailSender#send(MimeMessage...)}, which delivers the
+ * chunk over a single SMTP connection instead of reconnecting per message.
+ */
+@Component
+public class EmailDispatcher implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    private final EmailOutbox emailOutbox;
+    private final JavaMailSender mailSender;
+    private final EmailTemplateRenderer renderer;
+    private final ThreadPoolExecutor executor;
+
+    private final int chunkSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Duration lease;
+
+    @Value("${app.email.from}")
+    private String fromEmail;
+
+    private volatile InternetAddress fromAddress;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    private MeterRegistry meterRegistry;
+
+    public EmailDispatcher(EmailOutbox emailOutbox,
+                           JavaMailSender mailSender,
+                           EmailTemplateRenderer renderer,
+                           WorkerThreads workerThreads,
+                           @Value("${app.email.outbox.workers:4}") int workers,
+                           @Value("${app.email.outbox.chunk-size:20}") int chunkSize,
+                           @Value("${app.email.outbox.max-attempts:6}") int maxAttempts,
+                           @Value("${app.email.outbox.retry-backoff:30s}") Duration retryBackoff,
+                           @Value("${app.email.outbox.max-retry-backoff:1h}") Duration maxRetryBackoff,
+                           @Value("${app.email.outbox.lease:5m}") Duration lease) {
+        this.emailOutbox = emailOutbox;
+        this.mailSender = mailSender;
+        this.renderer = renderer;
+        this.chunkSize = chunkSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.lease = lease;
+
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers), workerThreads.factory("email-sender"));
+
+        // Jakarta Mail sends inside synchronized methods, which pin a virtual thread to its carrier
+        if (workerThreads.isVirtual() && workers >= Runtime.getRuntime().availableProcessors()) {
+            log.warn("{} email workers can pin every carrier thread while sending; use fewer than {}",
+                    workers, Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval:PT1S}")
+    public void poll() {
+        // Only claim as much as the pool can take right now; the rest stays in the outbox
+        int freeSlots = executor.getQueue().remainingCapacity();
+        if (freeSlots == 0) {
+            return;
+        }
+
+        List<EmailOutboxMessage> due = emailOutbox.claimDue(freeSlots * chunkSize, lease);
+        for (int i = 0; i < due.size(); i += chunkSize) {
+            List<EmailOutboxMessage> chunk = due.subList(i, Math.min(i + chunkSize, due.size()));
+            executor.execute(() -> deliver(chunk));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    void deliver(List<EmailOutboxMessage> chunk) {
+        Map<MimeMessage, EmailOutboxMessage> byMime = new IdentityHashMap<>();
+        for (EmailOutboxMessage message : chunk) {
+            try {
+                byMime.put(render(message), message);
+            } catch (Exception e) {
+                recordFailure(message, e);
+            }
+        }
+        if (byMime.isEmpty()) {
+            return;
+        }
+
+        List<Long> delivered = new ArrayList<>();
+        String outcome = "failure";
+        long start = System.nanoTime();
+        try {
+            mailSender.send(byMime.keySet().toArray(new MimeMessage[0]));
+            byMime.values().forEach(message -> delivered.add(message.getId()));
+            outcome = "success";
+        } catch (MailSendException e) {
+            // Per-message failures; anything not listed was delivered
+            Map<Object, Exception> failures = e.getFailedMessages();
+            byMime.forEach((mime, message) -> {
+                Exception failure = failures.get(mime);
+                if (failure == null && !failures.isEmpty()) {
+                    delivered.add(message.getId());
+                } else {
+                    recordFailure(message, failure != null ? failure : e);
+                }
+            });
+            outcome = delivered.isEmpty() ? "failure" : "partial";
+        } catch (Exception e) {
+            byMime.values().forEach(message -> recordFailure(message, e));
+        } finally {
+            if (meterRegistry != null) {
+                sendTimer(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        emailOutbox.markSent(delivered);
+        sent.addAndGet(delivered.size());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry = registry;
+        for (String outcome : List.of("success", "partial", "failure")) {
+            sendTimer(outcome);
+        }
+        messageCounter(registry, "sent", sent);
+        messageCounter(registry, "retried", failed);
+        messageCounter(registry, "dead_lettered", deadLettered);
+        Gauge.builder("app.email.workers.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Email workers currently rendering or sending a chunk")
+                .register(registry);
+        // Runs one indexed query per scrape
+        TimeGauge.builder("app.email.outbox.oldest.pending", emailOutbox, TimeUnit.MILLISECONDS,
+                        outbox -> outbox.oldestPendingAge().toMillis())
+                .description("Age of the oldest message waiting in the outbox")
+                .register(registry);
+        Gauge.builder("app.email.outbox.dead", emailOutbox, EmailOutbox::countDead)
+                .description("Dead-lettered messages still kept in the outbox")
+                .register(registry);
+    }
+
+    // One SMTP session per chunk, so the timer measures a whole chunk send
+    private Timer sendTimer(String outcome) {
+        return Timer.builder("app.email.send")
+                .description("Time to deliver one chunk of outbox messages over SMTP")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static void messageCounter(MeterRegistry registry, String outcome, AtomicLong count) {
+        FunctionCounter.builder("app.email.messages", count, AtomicLong::get)
+                .description("Outbox messages by delivery outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    // The templates have no attachments or inline images, so a single-part HTML body is enough
+    private MimeMessage render(EmailOutboxMessage message) throws MessagingException {
+        String content = renderer.render(message.getTemplate(), emailOutbox.readVariables(message));
+
+        MimeMessage mime = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mime, false, "UTF-8");
+        helper.setFrom(fromAddress());
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+        helper.setText(content, true);
+        return mime;
+    }
+
+    private InternetAddress fromAddress() throws MessagingException {
+        InternetAddress address = fromAddress;
+        if (address == null) {
+            address = new InternetAddress(fromEmail, true);
+            fromAddress = address;
+        }
+        return address;
+    }
+
+    private void recordFailure(EmailOutboxMessage message, Exception error) {
+        boolean dead = message.getAttempts() >= maxAttempts;
+        // Exponential backoff: base, 2x base, 4x base ... capped
+        long factor = 1L << Math.min(message.getAttempts() - 1, 20);
+        Duration retryAfter = retryBackoff.multipliedBy(factor);
+        if (retryAfter.compareTo(maxRetryBackoff) > 0) {
+            retryAfter = maxRetryBackoff;
+        }
+
+        if (dead) {
+            deadLettered.incrementAndGet();
+            log.error("Giving up on email {} to {} after {} attempts", message.getId(), message.getRecipient(), message.getAttempts(), error);
+        } else {
+            failed.incrementAndGet();
+            log.warn("Email {} failed (attempt {}), retrying in {}: {}", message.getId(), message.getAttempts(), retryAfter, error.getMessage());
+        }
+        emailOutbox.markFailed(message, String.valueOf(error.getMessage()), dead, retryAfter);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.EmailOutboxMessage;
+import com.example.backend.repository.EmailOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Durable queue of outgoing emails. Request threads only insert a row here; the
+ * {@link EmailDispatcher} claims due rows, renders and sends them.
+ */
+@Service
+public class EmailOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutbox.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO email_outbox (recipient, subject, template, variables, status, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, ?, ?, ?, 'PENDING', 0, ?, ?)";
+
+    public record Envelope(String to, String subject, String template, Map<String, Object> variables) {
+    }
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration sentRetention;
+    private final Duration deadRetention;
+    private final int purgeBatchSize;
+
+    public EmailOutbox(EmailOutboxRepository emailOutboxRepository,
+                       JdbcTemplate jdbcTemplate,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.email.outbox.sent-retention:7d}") Duration sentRetention,
+                       @Value("${app.email.outbox.dead-retention:30d}") Duration deadRetention,
+                       @Value("${app.email.outbox.purge-batch-size:1000}") int purgeBatchSize) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sentRetention = sentRetention;
+        this.deadRetention = deadRetention;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    @Transactional
+    public EmailOutboxMessage enqueue(String to, String subject, String template, Map<String, Object> variables) {
+        return emailOutboxRepository.save(new EmailOutboxMessage(to, subject, template, serialize(variables)));
+    }
+
+    /**
+     * Queues many messages with one JDBC batch, for bulk operations that notify every user
+     * they touch.
+     */
+    @Transactional
+    public void enqueueAll(List<Envelope> envelopes) {
+        if (envelopes.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, envelopes, envelopes.size(), (ps, envelope) -> {
+            ps.setString(1, envelope.to());
+            ps.setString(2, envelope.subject());
+            ps.setString(3, envelope.template());
+            ps.setString(4, serialize(envelope.variables()));
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+    }
+
+    /**
+     * Claims up to {@code limit} due messages by moving them to SENDING with a lease. A claim
+     * whose lease runs out (for example after a crash mid-send) becomes due again.
+     */
+    @Transactional
+    public List<EmailOutboxMessage> claimDue(int limit, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutboxMessage> due = emailOutboxRepository.lockDueMessages(now, limit);
+        for (EmailOutboxMessage message : due) {
+            message.setStatus(EmailOutboxMessage.Status.SENDING);
+            message.setAttempts(message.getAttempts() + 1);
+            message.setNextAttemptAt(now.plus(lease));
+        }
+        return emailOutboxRepository.saveAll(due);
+    }
+
+    @Transactional
+    public void markSent(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            emailOutboxRepository.markSent(ids, LocalDateTime.now());
+        }
+    }
+
+    @Transactional
+    public void markFailed(EmailOutboxMessage message, String error, boolean dead, Duration retryAfter) {
+        if (dead) {
+            emailOutboxRepository.markDead(message.getId(), error);
+        } else {
+            emailOutboxRepository.markRetry(message.getId(), LocalDateTime.now().plus(retryAfter), error);
+        }
+    }
+
+    /**
+     * Deletes SENT messages older than the sent retention, and dead-lettered ones created
+     * before the longer dead retention, which leaves time to inspect them. Pending rows stay.
+     */
+    @Scheduled(fixedDelayString = "${app.email.outbox.purge-interval:PT1H}")
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+        long sent = purgeInBatches(emailOutboxRepository::purgeSent, now.minus(sentRetention));
+        long dead = purgeInBatches(emailOutboxRepository::purgeDead, now.minus(deadRetention));
+
+        if (sent + dead > 0) {
+            log.info("Purged {} sent and {} dead outbox messages", sent, dead);
+        }
+    }
+
+    private long purgeInBatches(BiFunction<LocalDateTime, Integer, Integer> purgeBatch, LocalDateTime before) {
+        long total = 0;
+        int deleted;
+        // Short transactions so the purge never holds locks on a large range
+        do {
+            Integer count = transactionTemplate.execute(status -> purgeBatch.apply(before, purgeBatchSize));
+            deleted = count == null ? 0 : count;
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        return total;
+    }
+
+    public Map<String, Object> readVariables(EmailOutboxMessage message) {
+        try {
+            return objectMapper.readValue(message.getVariables(),
+                    objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt variables for outbox message " + message.getId(), e);
+        }
+    }
+
+    public Duration oldestPendingAge() {
+        return emailOutboxRepository.findOldestPendingCreatedAt()
+                .map(createdAt -> Duration.between(createdAt, LocalDateTime.now()))
+                .orElse(Duration.ZERO);
+    }
+
+    // Counted through the partial index on dead-lettered rows
+    public long countDead() {
+        return emailOutboxRepository.countByStatus(EmailOutboxMessage.Status.DEAD);
+    }
+
+    private String serialize(Map<String, Object> variables) {
+        try {
+            return objectMapper.writeValueAsString(variables);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Email variables are not serializable", e);
+        }
+    }
+}
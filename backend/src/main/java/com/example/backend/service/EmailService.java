@@ -1,23 +1,27 @@
 package com.example.backend.service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Builds the template variables for each kind of email and queues it in the {@link EmailOutbox}.
+ * Nothing here talks to the SMTP server; delivery happens in the {@link EmailDispatcher}.
+ */
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String ACCOUNT_DELETION_SUBJECT = "Your Account Has Been Deleted";
+    private static final String ACCOUNT_UPDATE_SUBJECT = "Your Account Information Has Been Updated";
+
+    private final EmailOutbox emailOutbox;
 
     @Value("${app.email.from}")
     private String fromEmail;
@@ -31,130 +35,81 @@ public class EmailService {
     @Value("${app.frontend-url}")
     private String frontendUrl;
 
-    public EmailService(JavaMailSender mailSender, TemplateEngine templateEngine) {
-        this.mailSender = mailSender;
-        this.templateEngine = templateEngine;
+    public EmailService(EmailOutbox emailOutbox) {
+        this.emailOutbox = emailOutbox;
     }
 
-    @Async
-    public void sendVerificationEmail(String to, String token) throws MessagingException {
-        Context context = new Context();
-        context.setVariable("verificationUrl", appUrl + "/verify-email?token=" + token);
-        context.setVariable("appName", appName);
-        context.setVariable("expiryTime", "24 hours");
-        
-        String content = templateEngine.process("verification-email", context);
-        
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-        
-        helper.setFrom(fromEmail);
-        helper.setTo(to);
-        helper.setSubject("Verify Your Email Address");
-        helper.setText(content, true);
+    public void sendVerificationEmail(String to, String token) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("verificationUrl", appUrl + "/verify-email?token=" + token);
+        variables.put("appName", appName);
+        variables.put("expiryTime", "24 hours");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(to, "Verify Your Email Address", "verification-email", variables);
     }
 
-    @Async
-    public void sendPasswordResetEmail(String to, String token) throws MessagingException {
-        Context context = new Context();
-        context.setVariable("resetUrl", frontendUrl + "/reset-password?token=" + token);
-        context.setVariable("appName", appName);
-        context.setVariable("expiryTime", "1 hour");
+    public void sendPasswordResetEmail(String to, String token) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("resetUrl", frontendUrl + "/reset-password?token=" + token);
+        variables.put("appName", appName);
+        variables.put("expiryTime", "1 hour");
         
-        String content = templateEngine.process("reset-password-email", context);
-        
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-        
-        helper.setFrom(fromEmail);
-        helper.setTo(to);
-        helper.setSubject("Reset Your Password");
-        helper.setText(content, true);
-        
-        mailSender.send(message);
+        emailOutbox.enqueue(to, "Reset Your Password", "reset-password-email", variables);
     }
     
-    @Async
-    public void sendPasswordResetConfirmationEmail(String to) throws MessagingException {
-        Context context = new Context();
-        context.setVariable("appName", appName);
-        context.setVariable("timestamp", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-        context.setVariable("supportEmail", fromEmail);
-        
-        String content = templateEngine.process("password-reset-confirmation", context);
+    public void sendPasswordResetConfirmationEmail(String to) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("appName", appName);
+        variables.put("timestamp", LocalDateTime.now().format(TIMESTAMP_FORMAT));
+        variables.put("supportEmail", fromEmail);
         
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-        
-        helper.setFrom(fromEmail);
-        helper.setTo(to);
-        helper.setSubject("Your Password Has Been Reset");
-        helper.setText(content, true);
-        
-        mailSender.send(message);
+        emailOutbox.enqueue(to, "Your Password Has Been Reset", "password-reset-confirmation", variables);
     }
 
-    @Async
-    public void sendTwoFactorAuthenticationEmail(String to, String code) throws MessagingException {
-        Context context = new Context();
-        context.setVariable("code", code);
-        context.setVariable("appName", appName);
-        context.setVariable("expiryTime", "5 minutes");
-        
-        String content = templateEngine.process("two-factor-email", context);
-        
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+    public void sendTwoFactorAuthenticationEmail(String to, String code) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("code", code);
+        variables.put("appName", appName);
+        variables.put("expiryTime", "5 minutes");
         
-        helper.setFrom(fromEmail);
-        helper.setTo(to);
-        helper.setSubject("Your Two-Factor Authentication Code");
-        helper.setText(content, true);
-        
-        mailSender.send(message);
+        emailOutbox.enqueue(to, "Your Two-Factor Authentication Code", "two-factor-email", variables);
     }
     
-    @Async
-    public void sendAccountDeletionEmail(String to, String username) throws MessagingException {
-        Context context = new Context();
-        context.setVariable("username", username);
-        context.setVariable("appName", appName);
-        context.setVariable("timestamp", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-        context.setVariable("supportEmail", fromEmail);
-        
-        String content = templateEngine.process("account-deletion", context);
-        
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-        
-        helper.setFrom(fromEmail);
-        helper.setTo(to);
-        helper.setSubject("Your Account Has Been Deleted");
-        helper.setText(content, true);
-        
-        mailSender.send(message);
+    public void sendAccountDeletionEmail(String to, String username) {
+        emailOutbox.enqueue(to, ACCOUNT_DELETION_SUBJECT, "account-deletion", accountVariables(username));
     }
     
-    @Async
-    public void sendAccountUpdateEmail(String to, String username) throws MessagingException {
-        Context context = new Context();
-        context.setVariable("username", username);
-        context.setVariable("appName", appName);
-        context.setVariable("timestamp", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-        context.setVariable("supportEmail", fromEmail);
-        
-        String content = templateEngine.process("account-update", context);
-        
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-        
-        helper.setFrom(fromEmail);
-        helper.setTo(to);
-        helper.setSubject("Your Account Information Has Been Updated");
-        helper.setText(content, true);
-        
-        mailSender.send(message);
+    public void sendAccountUpdateEmail(String to, String username) {
+        emailOutbox.enqueue(to, ACCOUNT_UPDATE_SUBJECT, "account-update", accountVariables(username));
+    }
+    
+    /**
+     * Queues one deletion notice per entry of {@code usernamesByEmail} in a single batch.
+     */
+    public void sendAccountDeletionEmails(Map<String, String> usernamesByEmail) {
+        emailOutbox.enqueueAll(envelopes(usernamesByEmail, ACCOUNT_DELETION_SUBJECT, "account-deletion"));
+    }
+    
+    /**
+     * Queues one update notice per entry of {@code usernamesByEmail} in a single batch.
+     */
+    public void sendAccountUpdateEmails(Map<String, String> usernamesByEmail) {
+        emailOutbox.enqueueAll(envelopes(usernamesByEmail, ACCOUNT_UPDATE_SUBJECT, "account-update"));
+    }
+    
+    private List<EmailOutbox.Envelope> envelopes(Map<String, String> usernamesByEmail, String subject, String template) {
+        List<EmailOutbox.Envelope> envelopes = new ArrayList<>(usernamesByEmail.size());
+        usernamesByEmail.forEach((to, username) ->
+                envelopes.add(new EmailOutbox.Envelope(to, subject, template, accountVariables(username))));
+        return envelopes;
+    }
+    
+    private Map<String, Object> accountVariables(String username) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("username", username);
+        variables.put("appName", appName);
+        variables.put("timestamp", LocalDateTime.now().format(TIMESTAMP_FORMAT));
+        variables.put("supportEmail", fromEmail);
+        return variables;
     }
 }
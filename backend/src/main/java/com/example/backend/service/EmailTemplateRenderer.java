@@ -0,0 +1,137 @@
+package com.example.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileCopyUtils;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templateresolver.ITemplateResolver;
+import org.thymeleaf.templateresolver.TemplateResolution;
+import org.unbescape.html.HtmlEscape;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders email templates without running the Thymeleaf engine per message.
+ *
+ * Each template is rendered once with placeholder markers in place of its variables and
+ * split into literal segments; a message is then the segments joined with the escaped
+ * per-recipient values. Templates with control flow (th:if, th:each, fragments, ...) are
+ * always rendered by Thymeleaf, and the first real render of every compiled template is
+ * checked against Thymeleaf so that anything else that transforms a value is caught too.
+ */
+@Component
+public class EmailTemplateRenderer {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailTemplateRenderer.class);
+
+    private static final Pattern MARKER = Pattern.compile("\\{\\{@(\\d+)@}}");
+    private static final Pattern CONTROL_FLOW = Pattern.compile(
+            "th:(if|unless|each|switch|case|with|insert|replace|include|remove|object|block)\\b");
+
+    private final TemplateEngine templateEngine;
+    private final Map<String, CompiledTemplate> compiled = new ConcurrentHashMap<>();
+    private final Set<String> thymeleafOnly = ConcurrentHashMap.newKeySet();
+
+    public EmailTemplateRenderer(TemplateEngine templateEngine) {
+        this.templateEngine = templateEngine;
+    }
+
+    public String render(String template, Map<String, Object> variables) {
+        if (thymeleafOnly.contains(template)) {
+            return renderWithThymeleaf(template, variables);
+        }
+
+        // The footer year comes from the template itself, so compiled output is only valid for one year
+        String key = template + '|' + Year.now() + '|' + new TreeSet<>(variables.keySet());
+        CompiledTemplate cached = compiled.get(key);
+        if (cached != null) {
+            return cached.render(variables);
+        }
+
+        String expected = renderWithThymeleaf(template, variables);
+        if (hasControlFlow(template)) {
+            log.info("Template {} has control flow, rendering it with Thymeleaf", template);
+            thymeleafOnly.add(template);
+            return expected;
+        }
+        CompiledTemplate candidate = compile(template, variables.keySet());
+        if (candidate.render(variables).equals(expected)) {
+            compiled.putIfAbsent(key, candidate);
+        } else {
+            log.warn("Template {} cannot be precompiled, falling back to Thymeleaf", template);
+            thymeleafOnly.add(template);
+        }
+        return expected;
+    }
+
+    public String renderWithThymeleaf(String template, Map<String, Object> variables) {
+        Context context = new Context();
+        context.setVariables(variables);
+        return templateEngine.process(template, context);
+    }
+
+    private boolean hasControlFlow(String template) {
+        IEngineConfiguration configuration = templateEngine.getConfiguration();
+        for (ITemplateResolver resolver : configuration.getTemplateResolvers()) {
+            TemplateResolution resolution = resolver.resolveTemplate(configuration, null, template, null);
+            if (resolution == null || !resolution.getTemplateResource().exists()) {
+                continue;
+            }
+            try (Reader reader = resolution.getTemplateResource().reader()) {
+                return CONTROL_FLOW.matcher(FileCopyUtils.copyToString(reader)).find();
+            } catch (IOException e) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private CompiledTemplate compile(String template, Set<String> variableNames) {
+        List<String> names = new ArrayList<>(variableNames);
+        Context context = new Context();
+        for (int i = 0; i < names.size(); i++) {
+            context.setVariable(names.get(i), "{{@" + i + "@}}");
+        }
+        String skeleton = templateEngine.process(template, context);
+
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        Matcher matcher = MARKER.matcher(skeleton);
+        int last = 0;
+        while (matcher.find()) {
+            literals.add(skeleton.substring(last, matcher.start()));
+            slots.add(names.get(Integer.parseInt(matcher.group(1))));
+            last = matcher.end();
+        }
+        literals.add(skeleton.substring(last));
+        return new CompiledTemplate(literals.toArray(new String[0]), slots.toArray(new String[0]), skeleton.length());
+    }
+
+    private record CompiledTemplate(String[] literals, String[] slots, int sizeHint) {
+
+        String render(Map<String, Object> variables) {
+            StringBuilder out = new StringBuilder(sizeHint + 256);
+            for (int i = 0; i < slots.length; i++) {
+                out.append(literals[i]);
+                Object value = variables.get(slots[i]);
+                if (value != null) {
+                    out.append(HtmlEscape.escapeHtml4Xml(value.toString()));
+                }
+            }
+            return out.append(literals[slots.length]).toString();
+        }
+    }
+}
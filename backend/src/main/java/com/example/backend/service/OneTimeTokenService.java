@@ -0,0 +1,199 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.OneTimeToken;
+import com.example.backend.repository.OneTimeTokenRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues and redeems the single-use tokens sent in verification and password-reset emails.
+ *
+ * Tokens look like {@code v.<expiry>.<secret>}: a purpose prefix, the expiry in base-36 epoch
+ * seconds and 32 random bytes in base64url. The prefix and expiry let malformed, mismatched
+ * or expired tokens be rejected without a query; editing them changes the hash, so they need
+ * no signature. Valid-looking tokens are looked up by the SHA-256 of the whole string.
+ */
+@Service
+public class OneTimeTokenService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OneTimeTokenService.class);
+
+    private static final int SECRET_BYTES = 32;
+    private static final int SECRET_LENGTH = 43;
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    private final OneTimeTokenRepository tokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SecureRandom random = new SecureRandom();
+    private final int purgeBatchSize;
+
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong redeemed = new AtomicLong();
+    private final AtomicLong rejectedWithoutLookup = new AtomicLong();
+    private final AtomicLong rejectedAfterLookup = new AtomicLong();
+    private final AtomicLong purged = new AtomicLong();
+
+    public OneTimeTokenService(OneTimeTokenRepository tokenRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.tokens.purge-batch-size:1000}") int purgeBatchSize) {
+        this.tokenRepository = tokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /**
+     * Creates a token for the user, replacing any outstanding token with the same purpose.
+     */
+    @Transactional
+    public String issue(Long userId, OneTimeToken.Purpose purpose, Duration ttl) {
+        long expiresAt = Instant.now().plus(ttl).getEpochSecond();
+        byte[] secret = new byte[SECRET_BYTES];
+        random.nextBytes(secret);
+        String token = purpose.getPrefix() + "." + Long.toString(expiresAt, 36) + "."
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+
+        tokenRepository.deleteByUserIdAndPurpose(userId, purpose);
+        tokenRepository.save(new OneTimeToken(hash(token), purpose, userId, toLocalDateTime(expiresAt)));
+        issued.incrementAndGet();
+        return token;
+    }
+
+    /**
+     * Returns the user the token was issued to, without using it up.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> peek(String token, OneTimeToken.Purpose purpose) {
+        return find(token, purpose).map(OneTimeToken::getUserId);
+    }
+
+    /**
+     * Uses up the token and returns the user it was issued to. A token can be redeemed once;
+     * concurrent attempts with the same token see at most one success.
+     */
+    @Transactional
+    public Optional<Long> redeem(String token, OneTimeToken.Purpose purpose) {
+        Optional<OneTimeToken> found = find(token, purpose);
+        if (found.isEmpty() || tokenRepository.deleteByIdReturningCount(found.get().getId()) == 0) {
+            return Optional.empty();
+        }
+        redeemed.incrementAndGet();
+        return Optional.of(found.get().getUserId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.tokens.purge-interval:PT1H}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        long total = 0;
+        int deleted;
+        // Short transactions so the purge never holds locks on a large range
+        do {
+            Integer count = transactionTemplate.execute(status -> tokenRepository.purgeExpired(now, purgeBatchSize));
+            deleted = count == null ? 0 : count;
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+
+        if (total > 0) {
+            purged.addAndGet(total);
+            log.info("Purged {} expired one-time tokens", total);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("app.tokens.issued", issued, AtomicLong::get)
+                .description("Verification and password-reset tokens issued")
+                .register(registry);
+        FunctionCounter.builder("app.tokens.redeemed", redeemed, AtomicLong::get)
+                .description("Tokens used up by a successful redemption")
+                .register(registry);
+        rejectedCounter(registry, "format", rejectedWithoutLookup);
+        rejectedCounter(registry, "lookup", rejectedAfterLookup);
+        FunctionCounter.builder("app.tokens.purged", purged, AtomicLong::get)
+                .description("Expired tokens deleted by the scheduled purge")
+                .register(registry);
+    }
+
+    private static void rejectedCounter(MeterRegistry registry, String stage, AtomicLong count) {
+        FunctionCounter.builder("app.tokens.rejected", count, AtomicLong::get)
+                .description("Tokens rejected before the database lookup (format) or by it (lookup)")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    private Optional<OneTimeToken> find(String token, OneTimeToken.Purpose purpose) {
+        if (!isPlausible(token, purpose)) {
+            rejectedWithoutLookup.incrementAndGet();
+            return Optional.empty();
+        }
+
+        Optional<OneTimeToken> found = tokenRepository.findByTokenHashAndPurpose(hash(token), purpose)
+                .filter(stored -> stored.getExpiresAt().isAfter(LocalDateTime.now()));
+        if (found.isEmpty()) {
+            rejectedAfterLookup.incrementAndGet();
+        }
+        return found;
+    }
+
+    private static boolean isPlausible(String token, OneTimeToken.Purpose purpose) {
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) {
+            return false;
+        }
+        String prefix = purpose.getPrefix();
+        int expiryEnd = token.indexOf('.', prefix.length() + 1);
+        if (!token.startsWith(prefix + ".") || expiryEnd < 0 || token.length() - expiryEnd - 1 != SECRET_LENGTH) {
+            return false;
+        }
+
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(token, prefix.length() + 1, expiryEnd, 36);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (expiresAt <= Instant.now().getEpochSecond()) {
+            return false;
+        }
+
+        for (int i = expiryEnd + 1; i < token.length(); i++) {
+            char c = token.charAt(i);
+            boolean base64Url = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+            if (!base64Url) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Role;
+import com.example.backend.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The seeded {@link Role} rows, loaded once at startup into an immutable map so that
+ * registering or editing a user resolves role names without querying the roles table.
+ * Missing roles are created on load, and {@link #refresh()} reloads the map if the table changes.
+ */
+@Component
+@DependsOnDatabaseInitialization
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+
+    private volatile Map<Role.ERole, Role> roles = Map.of();
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @PostConstruct
+    public void refresh() {
+        Map<Role.ERole, Role> loaded = new EnumMap<>(Role.ERole.class);
+        for (Role role : roleRepository.findAll()) {
+            loaded.put(role.getName(), role);
+        }
+        // schema.sql seeds every role, but a hand-made database may lack some
+        for (Role.ERole name : Role.ERole.values()) {
+            if (!loaded.containsKey(name)) {
+                loaded.put(name, roleRepository.save(new Role(name)));
+            }
+        }
+        roles = Collections.unmodifiableMap(loaded);
+    }
+
+    public Role get(Role.ERole name) {
+        return roles.get(name);
+    }
+
+    /**
+     * Maps requested role names to roles. Accepts the short names used at registration
+     * ("admin", "mod") and the full ones used by the admin API ("ROLE_ADMIN"); anything else
+     * means the user role, as does an empty request.
+     */
+    public Set<Role> resolve(Collection<String> names) {
+        Set<Role> resolved = new HashSet<>();
+        if (names == null || names.isEmpty()) {
+            resolved.add(get(Role.ERole.ROLE_USER));
+            return resolved;
+        }
+        for (String name : names) {
+            resolved.add(get(parse(name)));
+        }
+        return resolved;
+    }
+
+    static Role.ERole parse(String name) {
+        return lookup(name).orElse(Role.ERole.ROLE_USER);
+    }
+
+    /**
+     * The role a short or full name refers to, or empty if it names none. Shared by
+     * registration and the admin search filter so both accept the same names.
+     */
+    static Optional<Role.ERole> lookup(String name) {
+        String normalized = name == null ? "" : name.trim().toUpperCase(Locale.ROOT);
+        if (normalized.startsWith("ROLE_")) {
+            normalized = normalized.substring("ROLE_".length());
+        }
+        return switch (normalized) {
+            case "ADMIN" -> Optional.of(Role.ERole.ROLE_ADMIN);
+            case "MOD", "MODERATOR" -> Optional.of(Role.ERole.ROLE_MODERATOR);
+            case "USER" -> Optional.of(Role.ERole.ROLE_USER);
+            default -> Optional.empty();
+        };
+    }
+}
@@ -11,8 +11,6 @@ import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.util.Base64;
-import java.util.HashMap;
-import java.util.Map;
 
 @Service
 public class TwoFactorAuthService {
@@ -20,7 +18,11 @@ public class TwoFactorAuthService {
     @Value("${app.name}")
     private String appName;
     
-    private final Map<Long, String> userCodes = new HashMap<>();
+    private final TwoFactorCodeStore codeStore;
+
+    public TwoFactorAuthService(TwoFactorCodeStore codeStore) {
+        this.codeStore = codeStore;
+    }
 
     public String generateTwoFactorSecret() {
         SecureRandom random = new SecureRandom();
@@ -42,7 +44,7 @@ public class TwoFactorAuthService {
         String codeStr = String.valueOf(code);
         
         // Store the code for verification
-        userCodes.put(user.getId(), codeStr);
+        codeStore.put(user.getId(), codeStr);
         
         return codeStr;
     }
@@ -50,12 +52,7 @@ public class TwoFactorAuthService {
     public boolean verifyTwoFactorCode(User user, String code) {
         // For simplicity, we'll just check if the code matches
         // In a real implementation, you would verify the TOTP code
-        String storedCode = userCodes.get(user.getId());
-        if (storedCode != null && storedCode.equals(code)) {
-            userCodes.remove(user.getId());
-            return true;
-        }
-        return false;
+        return codeStore.verify(user.getId(), code);
     }
     
     // For TOTP implementation (Time-based One-Time Password)
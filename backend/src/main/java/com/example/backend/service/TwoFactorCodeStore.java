@@ -0,0 +1,126 @@
+package com.example.backend.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pending emailed 2FA codes, one per user. Entries expire after the configured TTL or once
+ * the attempt limit is used up, and the map is capped so unverified logins cannot grow it
+ * without bound.
+ */
+@Component
+public class TwoFactorCodeStore implements MeterBinder {
+
+    private final Map<Long, PendingCode> codes = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxAttempts;
+    private final int maxEntries;
+    private final Clock clock;
+
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong lockedOut = new AtomicLong();
+
+    public TwoFactorCodeStore(@Value("${app.two-factor.code-ttl:5m}") Duration ttl,
+                              @Value("${app.two-factor.max-attempts:5}") int maxAttempts,
+                              @Value("${app.two-factor.max-pending-codes:100000}") int maxEntries) {
+        this(ttl, maxAttempts, maxEntries, Clock.systemUTC());
+    }
+
+    TwoFactorCodeStore(Duration ttl, int maxAttempts, int maxEntries, Clock clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxAttempts = maxAttempts;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public void put(Long userId, String code) {
+        if (codes.size() >= maxEntries && !codes.containsKey(userId)) {
+            sweep();
+            if (codes.size() >= maxEntries) {
+                evictSoonestExpiring();
+            }
+        }
+        codes.put(userId, new PendingCode(code, clock.millis() + ttlMillis, maxAttempts));
+    }
+
+    /**
+     * Consumes the code on success. Each failed attempt counts against the limit, and the
+     * code is discarded once the limit is reached.
+     */
+    public boolean verify(Long userId, String code) {
+        boolean[] matched = {false};
+        codes.computeIfPresent(userId, (id, pending) -> {
+            if (pending.expiresAt < clock.millis()) {
+                expired.incrementAndGet();
+                return null;
+            }
+            if (code != null && MessageDigest.isEqual(
+                    pending.code.getBytes(StandardCharsets.UTF_8), code.getBytes(StandardCharsets.UTF_8))) {
+                matched[0] = true;
+                return null;
+            }
+            if (pending.attemptsLeft <= 1) {
+                lockedOut.incrementAndGet();
+                return null;
+            }
+            return new PendingCode(pending.code, pending.expiresAt, pending.attemptsLeft - 1);
+        });
+        return matched[0];
+    }
+
+    @Scheduled(fixedDelayString = "${app.two-factor.sweep-interval:PT1M}")
+    public void sweep() {
+        long now = clock.millis();
+        codes.entrySet().removeIf(entry -> {
+            if (entry.getValue().expiresAt < now) {
+                expired.incrementAndGet();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.two-factor.codes.pending", codes, Map::size)
+                .description("Emailed 2FA codes waiting to be verified")
+                .register(registry);
+        removedCounter(registry, "expired", expired);
+        removedCounter(registry, "evicted", evicted);
+        removedCounter(registry, "locked_out", lockedOut);
+    }
+
+    private static void removedCounter(MeterRegistry registry, String reason, AtomicLong count) {
+        FunctionCounter.builder("app.two-factor.codes.removed", count, AtomicLong::get)
+                .description("2FA codes discarded without a successful verification")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private void evictSoonestExpiring() {
+        codes.entrySet().stream()
+                .min((a, b) -> Long.compare(a.getValue().expiresAt, b.getValue().expiresAt))
+                .ifPresent(entry -> {
+                    if (codes.remove(entry.getKey(), entry.getValue())) {
+                        evicted.incrementAndGet();
+                    }
+                });
+    }
+
+    private record PendingCode(String code, long expiresAt, int attemptsLeft) {
+    }
+}
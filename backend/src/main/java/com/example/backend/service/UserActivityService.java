@@ -2,11 +2,13 @@ package com.example.backend.service;
 
 import com.example.backend.entity.User;
 import com.example.backend.entity.UserActivity;
+import com.example.backend.payload.Cursor;
+import com.example.backend.payload.response.ActivityItem;
+import com.example.backend.payload.response.CursorPage;
 import com.example.backend.repository.UserActivityRepository;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,41 +16,117 @@ import java.util.List;
 @Service
 public class UserActivityService {
     
+    private static final int RECENT_ACTIVITY_COUNT = 10;
+    
     private final UserActivityRepository userActivityRepository;
     private final HttpServletRequest request;
+    private final UserActivityWriter userActivityWriter;
+    private final ActivityStreamPublisher activityStreamPublisher;
     
-    public UserActivityService(UserActivityRepository userActivityRepository, HttpServletRequest request) {
+    public UserActivityService(UserActivityRepository userActivityRepository, HttpServletRequest request,
+                               UserActivityWriter userActivityWriter,
+                               ActivityStreamPublisher activityStreamPublisher) {
         this.userActivityRepository = userActivityRepository;
         this.request = request;
+        this.userActivityWriter = userActivityWriter;
+        this.activityStreamPublisher = activityStreamPublisher;
     }
     
     public void logActivity(User user, String activityType, String description) {
-        UserActivity activity = new UserActivity(user, activityType, description);
+        logActivity(user.getId(), activityType, description);
+    }
+    
+    // Request details are captured here because the record is written after the request completes
+    public void logActivity(Long userId, String activityType, String description) {
+        UserActivityWriter.ActivityRecord record = new UserActivityWriter.ActivityRecord(
+                userId,
+                activityType,
+                description,
+                LocalDateTime.now(),
+                request.getRemoteAddr(),
+                request.getHeader("User-Agent"));
+        // Records the overflow policy discarded are not streamed either, so the stream matches the table
+        if (userActivityWriter.submit(record)) {
+            activityStreamPublisher.publish(record);
+        }
+    }
+    
+    /**
+     * Keyset page of a user's activities, newest first, ordered by (timestamp, id). Reads one
+     * extra row to tell whether another page exists, so no count query is needed and a deep
+     * page costs the same as the first.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ActivityItem> getActivityFeed(Long userId, String type, String cursor, int limit) {
+        String activityType = type == null || type.isBlank() ? null : type;
+        List<UserActivityRepository.ActivityView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = userActivityRepository.findFeedPage(userId, activityType, limit + 1);
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            rows = userActivityRepository.findFeedPageBefore(
+                    userId, activityType, position.timestamp(), position.id(), limit + 1);
+        }
         
-        // Capture IP address and user agent
-        activity.setIpAddress(getClientIp());
-        activity.setUserAgent(request.getHeader("User-Agent"));
+        boolean hasMore = rows.size() > limit;
+        List<ActivityItem> items = rows.stream()
+                .limit(limit)
+                .map(UserActivityService::toItem)
+                .toList();
         
-        userActivityRepository.save(activity);
+        String nextCursor = null;
+        if (hasMore) {
+            ActivityItem last = items.get(items.size() - 1);
+            nextCursor = new Cursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+    
+    /**
+     * Changes whenever an activity is written for the user: the id of their latest one, read
+     * from the (user_id, timestamp, id) index alone. Used as the ETag of views built from the feed.
+     */
+    @Transactional(readOnly = true)
+    public String getActivityVersion(Long userId) {
+        return userId + "-" + userActivityRepository.findLatestActivityId(userId, null).orElse(0L);
     }
     
-    public Page<UserActivity> getUserActivities(Long userId, Pageable pageable) {
-        return userActivityRepository.findByUserIdOrderByTimestampDesc(userId, pageable);
+    /**
+     * As {@link #getActivityVersion(Long)}, ignoring one activity type, for views that leave
+     * that type out and would otherwise change every time they log being viewed.
+     */
+    @Transactional(readOnly = true)
+    public String getActivityVersion(Long userId, String excludedType) {
+        return userId + "-" + userActivityRepository.findLatestActivityId(userId, excludedType).orElse(0L);
     }
     
-    public List<UserActivity> getRecentUserActivities(Long userId) {
-        return userActivityRepository.findTop10ByUserIdOrderByTimestampDesc(userId);
+    // The first page of the feed, through the same covering index and projection
+    @Transactional(readOnly = true)
+    public List<ActivityItem> getRecentUserActivities(Long userId) {
+        return userActivityRepository.findFeedPage(userId, null, RECENT_ACTIVITY_COUNT).stream()
+                .map(UserActivityService::toItem)
+                .toList();
+    }
+    
+    // As above, leaving out one activity type
+    @Transactional(readOnly = true)
+    public List<ActivityItem> getRecentUserActivities(Long userId, String excludedType) {
+        return userActivityRepository.findFeedPageExcludingType(userId, excludedType, RECENT_ACTIVITY_COUNT).stream()
+                .map(UserActivityService::toItem)
+                .toList();
     }
     
     public List<UserActivity> getUserActivitiesByDateRange(Long userId, LocalDateTime start, LocalDateTime end) {
         return userActivityRepository.findByUserIdAndTimestampBetweenOrderByTimestampDesc(userId, start, end);
     }
     
-    private String getClientIp() {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null) {
-            return request.getRemoteAddr();
-        }
-        return xfHeader.split(",")[0];
+    private static ActivityItem toItem(UserActivityRepository.ActivityView row) {
+        return new ActivityItem(
+                row.getId(),
+                row.getActivityType(),
+                row.getDescription(),
+                row.getTimestamp(),
+                row.getIpAddress(),
+                row.getUserAgent());
     }
 }
@@ -0,0 +1,257 @@
+package com.example.backend.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.example.backend.config.WorkerThreads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers activity records in a bounded queue and writes them from a background thread in
+ * JDBC batches, flushing when a batch fills up or the flush interval elapses.
+ */
+@Component
+public class UserActivityWriter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(UserActivityWriter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user_activities (user_id, activity_type, description, timestamp, ip_address, user_agent) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    public enum OverflowPolicy {
+        // Wait up to the block timeout for space, then drop
+        BLOCK,
+        // Drop new records while the queue is full
+        DROP,
+        // Keep one in sample-rate records once the queue is half full
+        SAMPLE
+    }
+
+    public record ActivityRecord(Long userId, String activityType, String description,
+                                 LocalDateTime timestamp, String ipAddress, String userAgent) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WorkerThreads workerThreads;
+    private final BlockingQueue<ActivityRecord> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int sampleRate;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private Timer batchTimer;
+    private Timer fallbackTimer;
+    private DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public UserActivityWriter(JdbcTemplate jdbcTemplate,
+                              WorkerThreads workerThreads,
+                              @Value("${app.activity.queue-capacity:10000}") int capacity,
+                              @Value("${app.activity.batch-size:200}") int batchSize,
+                              @Value("${app.activity.flush-interval:500ms}") Duration flushInterval,
+                              @Value("${app.activity.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+                              @Value("${app.activity.block-timeout:1s}") Duration blockTimeout,
+                              @Value("${app.activity.sample-rate:10}") int sampleRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.workerThreads = workerThreads;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        worker = workerThreads.factory("activity-writer").newThread(this::run);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 5_000);
+    }
+
+    /**
+     * Queues a record without touching the database. Returns false if the overflow policy
+     * discarded it.
+     */
+    public boolean submit(ActivityRecord record) {
+        boolean queued = switch (overflowPolicy) {
+            case BLOCK -> offerWithTimeout(record);
+            case DROP -> queue.offer(record);
+            case SAMPLE -> offerSampled(record);
+        };
+
+        if (queued) {
+            accepted.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+        return queued;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchTimer = writeTimer(registry, "batch");
+        fallbackTimer = writeTimer(registry, "individual");
+        batchSizes = DistributionSummary.builder("app.activity.write.batch.size")
+                .description("Records per activity flush")
+                .register(registry);
+        Gauge.builder("app.activity.queue.depth", queue, BlockingQueue::size)
+                .description("Activity records waiting to be written")
+                .register(registry);
+        recordCounter(registry, "accepted", accepted);
+        recordCounter(registry, "dropped", dropped);
+        recordCounter(registry, "written", written);
+        recordCounter(registry, "failed", failed);
+    }
+
+    private static Timer writeTimer(MeterRegistry registry, String mode) {
+        return Timer.builder("app.activity.write")
+                .description("Time to write one flush of activity records")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static void recordCounter(MeterRegistry registry, String outcome, AtomicLong count) {
+        FunctionCounter.builder("app.activity.records", count, AtomicLong::get)
+                .description("Activity records by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private boolean offerWithTimeout(ActivityRecord record) {
+        try {
+            return queue.offer(record, blockTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean offerSampled(ActivityRecord record) {
+        if (queue.size() >= capacity / 2 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return false;
+        }
+        return queue.offer(record);
+    }
+
+    private void run() {
+        List<ActivityRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ActivityRecord first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Fill the batch, waiting at most one flush interval for stragglers
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running) {
+                        break;
+                    }
+                    ActivityRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                log.error("Activity writer failed to flush {} records", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<ActivityRecord> batch) {
+        long start = System.nanoTime();
+        Timer timer = batchTimer;
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, record) -> {
+                ps.setLong(1, record.userId());
+                ps.setString(2, record.activityType());
+                ps.setString(3, record.description());
+                ps.setTimestamp(4, Timestamp.valueOf(record.timestamp()));
+                ps.setString(5, record.ipAddress());
+                ps.setString(6, record.userAgent());
+            });
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            // One bad row (e.g. a user deleted while its records were queued) fails the whole batch
+            log.warn("Batched activity insert failed, retrying {} records individually: {}", batch.size(), e.getMessage());
+            timer = fallbackTimer;
+            writeIndividually(batch);
+        } finally {
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                batchSizes.record(batch.size());
+            }
+        }
+    }
+
+    private void writeIndividually(List<ActivityRecord> batch) {
+        for (ActivityRecord record : batch) {
+            try {
+                jdbcTemplate.update(INSERT_SQL,
+                        record.userId(),
+                        record.activityType(),
+                        record.description(),
+                        Timestamp.valueOf(record.timestamp()),
+                        record.ipAddress(),
+                        record.userAgent());
+                written.incrementAndGet();
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.warn("Dropping activity record for user {}: {}", record.userId(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.User;
+import com.example.backend.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded, time-limited read-through cache of {@link User} rows keyed by id and username.
+ *
+ * Cached instances are shared between threads and must be treated as read-only; code that
+ * modifies a user loads it from {@link UserRepository} and calls {@link #evict(Long)} after
+ * saving. Evictions are also recorded so that tokens issued before a change can be detected.
+ * Each entry can also hold the user's serialized profile and its ETag, dropped with it.
+ */
+@Component
+public class UserCache implements MeterBinder {
+
+    private final UserRepository userRepository;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long invalidationRetentionMillis;
+
+    // Access-ordered so the eldest entry is the least recently used
+    private final LinkedHashMap<Long, Entry> byId = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Long> idsByUsername = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private volatile long lastInvalidationPurge;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${app.user-cache.max-size:10000}") int maxSize,
+                     @Value("${app.user-cache.ttl:5m}") Duration ttl,
+                     @Value("${jwt.expiration}") long tokenLifetimeSeconds) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.invalidationRetentionMillis = tokenLifetimeSeconds * 1000L;
+    }
+
+    public Optional<User> findById(Long id) {
+        User cached = lookup(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long loadStartedAt = System.currentTimeMillis();
+        Optional<User> loaded = userRepository.findById(id);
+        loaded.ifPresent(user -> put(user, loadStartedAt));
+        return loaded;
+    }
+
+    /**
+     * The user's profile as produced by {@code serializer}, computed once per cached row. Any
+     * {@link #evict(Long)} drops it along with the row, so writes are visible on the next read.
+     */
+    public Optional<Profile> findProfile(Long id, Function<User, Profile> serializer) {
+        lock.lock();
+        try {
+            Entry entry = byId.get(id);
+            if (entry != null && entry.profile != null && entry.expiresAt >= System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return Optional.of(entry.profile);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Optional<User> user = findById(id);
+        if (user.isEmpty()) {
+            return Optional.empty();
+        }
+        Profile profile = serializer.apply(user.get());
+        lock.lock();
+        try {
+            // Only attach to the row it was built from; an eviction in between means it is stale
+            Entry entry = byId.get(id);
+            if (entry != null && entry.user == user.get()) {
+                entry.profile = profile;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return Optional.of(profile);
+    }
+
+    public Optional<User> findByUsername(String username) {
+        User cached = null;
+        lock.lock();
+        try {
+            Long id = idsByUsername.get(username);
+            if (id != null) {
+                cached = lookupLocked(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+        misses.incrementAndGet();
+
+        long loadStartedAt = System.currentTimeMillis();
+        Optional<User> loaded = userRepository.findByUsername(username);
+        loaded.ifPresent(user -> put(user, loadStartedAt));
+        return loaded;
+    }
+
+    /**
+     * Drops the cached user immediately and, when called inside a transaction, again after
+     * commit so that a concurrent reader cannot re-cache the pre-commit row.
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        invalidate(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(userId);
+                }
+            });
+        }
+    }
+
+    public void evict(User user) {
+        evict(user.getId());
+    }
+
+    /**
+     * Whether the user was modified at or after the given instant. Used to re-check tokens
+     * whose claims may predate a role change or account disable.
+     */
+    public boolean isModifiedSince(Long userId, long epochMillis) {
+        Long modified = invalidatedAt.get(userId);
+        return modified != null && modified >= epochMillis;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        lookupCounter(registry, "hit", hits);
+        lookupCounter(registry, "miss", misses);
+        FunctionCounter.builder("app.user-cache.evictions", evictions, AtomicLong::get)
+                .description("Cached users dropped by expiry, size limit or invalidation")
+                .register(registry);
+        Gauge.builder("app.user-cache.size", this, UserCache::size)
+                .description("Users currently cached")
+                .register(registry);
+    }
+
+    private static void lookupCounter(MeterRegistry registry, String outcome, AtomicLong count) {
+        FunctionCounter.builder("app.user-cache.lookups", count, AtomicLong::get)
+                .description("User cache lookups by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private int size() {
+        lock.lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private User lookup(Long id) {
+        User cached;
+        lock.lock();
+        try {
+            cached = lookupLocked(id);
+        } finally {
+            lock.unlock();
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return cached;
+    }
+
+    private User lookupLocked(Long id) {
+        Entry entry = byId.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            removeLocked(id);
+            evictions.incrementAndGet();
+            return null;
+        }
+        return entry.user;
+    }
+
+    private void put(User user, long loadStartedAt) {
+        // The row may have been read before a concurrent write evicted it
+        if (isModifiedSince(user.getId(), loadStartedAt)) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            Entry previous = byId.put(user.getId(), new Entry(user, System.currentTimeMillis() + ttlMillis));
+            if (previous != null && !previous.user.getUsername().equals(user.getUsername())) {
+                idsByUsername.remove(previous.user.getUsername());
+            }
+            idsByUsername.put(user.getUsername(), user.getId());
+
+            Iterator<Map.Entry<Long, Entry>> eldest = byId.entrySet().iterator();
+            while (byId.size() > maxSize && eldest.hasNext()) {
+                Entry removed = eldest.next().getValue();
+                eldest.remove();
+                idsByUsername.remove(removed.user.getUsername());
+                evictions.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void invalidate(Long userId) {
+        long now = System.currentTimeMillis();
+        invalidatedAt.put(userId, now);
+        // Marks only matter while a token issued before them can still be presented
+        if (now - lastInvalidationPurge > 60_000) {
+            lastInvalidationPurge = now;
+            invalidatedAt.values().removeIf(at -> at < now - invalidationRetentionMillis);
+        }
+
+        lock.lock();
+        try {
+            if (removeLocked(userId)) {
+                evictions.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean removeLocked(Long userId) {
+        Entry removed = byId.remove(userId);
+        if (removed == null) {
+            return false;
+        }
+        idsByUsername.remove(removed.user.getUsername(), userId);
+        return true;
+    }
+
+    private static final class Entry {
+
+        private final User user;
+        private final long expiresAt;
+        // Guarded by the cache lock
+        private Profile profile;
+
+        Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // A serialized response body and the strong ETag derived from it
+    public record Profile(byte[] json, String etag) {
+    }
+}
@@ -0,0 +1,448 @@
+package com.example.backend.service;
+
+import com.example.backend.config.WorkerThreads;
+import com.example.backend.payload.request.UserImportRow;
+import com.example.backend.payload.response.BulkItemResult;
+import com.example.backend.payload.response.BulkResult;
+import com.example.backend.payload.response.ImportRowError;
+import com.example.backend.payload.response.ImportStatus;
+import com.example.backend.security.RegisterRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Imports users from CSV or NDJSON uploads. The upload is spooled to a temporary file, so the
+ * request returns as soon as the body is received and nothing is held in memory, then parsed
+ * row by row on a background worker. Rows go to {@link BulkUserService} in batches: one
+ * set-based uniqueness query, passwords hashed in parallel on the hasher pool, and JDBC batch
+ * inserts. Progress and row errors are polled through {@link #find(String, int)}.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^(?:\\{bcrypt})?(\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53})$");
+    private static final Pattern ROLE_SEPARATOR = Pattern.compile("[;,\\s]+");
+    private static final int ERRORS_PER_RESPONSE = 500;
+
+    private final BulkUserService bulkUserService;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final int batchSize;
+    private final long maxBytes;
+    private final int maxErrors;
+    private final Duration retention;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public UserImportService(BulkUserService bulkUserService,
+                             ObjectMapper objectMapper,
+                             WorkerThreads workerThreads,
+                             @Value("${app.admin.import.batch-size:1000}") int batchSize,
+                             @Value("${app.admin.import.max-size:100MB}") DataSize maxSize,
+                             @Value("${app.admin.import.max-errors:10000}") int maxErrors,
+                             @Value("${app.admin.import.max-queued:2}") int maxQueued,
+                             @Value("${app.admin.import.retention:1h}") Duration retention) {
+        this.bulkUserService = bulkUserService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxBytes = maxSize.toBytes();
+        this.maxErrors = maxErrors;
+        this.retention = retention;
+        // One import at a time; each one already keeps every hasher thread busy
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueued), workerThreads.factory("user-import"));
+    }
+
+    /**
+     * Spools {@code body} to disk and queues the import.
+     *
+     * @throws IllegalArgumentException if the upload is larger than app.admin.import.max-size
+     * @throws IllegalStateException if app.admin.import.max-queued imports are already waiting
+     */
+    public ImportStatus start(ExportService.Format format, InputStream body) throws IOException {
+        pruneFinished();
+        Path file = Files.createTempFile("user-import-", "." + format.getExtension());
+        try {
+            spool(body, file);
+            Job job = new Job(UUID.randomUUID().toString(), format);
+            jobs.put(job.id, job);
+            try {
+                executor.execute(() -> run(job, file));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                throw new IllegalStateException("Too many imports are already queued, please try again later");
+            }
+            return job.toStatus(0);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    public Optional<ImportStatus> find(String id, int errorsFrom) {
+        pruneFinished();
+        return Optional.ofNullable(jobs.get(id)).map(job -> job.toStatus(errorsFrom));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void spool(InputStream body, Path file) throws IOException {
+        long copied = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                copied += read;
+                if (copied > maxBytes) {
+                    throw new IllegalArgumentException("Import is larger than " + DataSize.ofBytes(maxBytes).toMegabytes() + "MB");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private void run(Job job, Path file) {
+        job.startedAt = LocalDateTime.now();
+        job.state = ImportStatus.State.RUNNING;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RowReader rows = job.format == ExportService.Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+            Batch batch = new Batch();
+            ParsedRow row;
+            while ((row = rows.next()) != null) {
+                job.rowsRead.incrementAndGet();
+                String error = row.error() != null ? row.error() : batch.add(row);
+                if (error != null) {
+                    job.fail(row.line(), row.row() == null ? null : row.row().getUsername(), error);
+                } else if (batch.size() == batchSize) {
+                    batch.flush(job);
+                }
+            }
+            batch.flush(job);
+            job.state = ImportStatus.State.COMPLETED;
+            log.info("User import {} finished: {} rows, {} created, {} failed",
+                    job.id, job.rowsRead.get(), job.created.get(), job.failed.get());
+        } catch (Exception e) {
+            log.error("User import {} stopped after {} rows", job.id, job.rowsRead.get(), e);
+            job.message = e.getMessage();
+            job.state = ImportStatus.State.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}", file, e);
+            }
+        }
+    }
+
+    private void pruneFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    // Accepts $2a$/$2b$/$2y$ hashes, with or without the {bcrypt} prefix; null if malformed
+    static String normalizeHash(String hash) {
+        Matcher matcher = BCRYPT_HASH.matcher(hash.trim());
+        return matcher.matches() ? "{bcrypt}" + matcher.group(1) : null;
+    }
+
+    private final class Job {
+
+        private final String id;
+        private final ExportService.Format format;
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<ImportRowError> errors = new ArrayList<>();
+
+        private volatile ImportStatus.State state = ImportStatus.State.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String message;
+
+        Job(String id, ExportService.Format format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        void fail(long line, String username, String error) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new ImportRowError(line, username, error));
+                }
+            }
+        }
+
+        ImportStatus toStatus(int errorsFrom) {
+            List<ImportRowError> page;
+            synchronized (errors) {
+                int from = Math.min(Math.max(errorsFrom, 0), errors.size());
+                page = List.copyOf(errors.subList(from, Math.min(from + ERRORS_PER_RESPONSE, errors.size())));
+            }
+            return new ImportStatus(id, state, format.getExtension(), rowsRead.get(), created.get(), failed.get(),
+                    startedAt, finishedAt, message, page);
+        }
+    }
+
+    /**
+     * Rows waiting to be written. The seen sets cover the whole import, so a username repeated
+     * thousands of rows apart is still reported as a duplicate.
+     */
+    private final class Batch {
+
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private final List<RegisterRequest> users = new ArrayList<>();
+        private final List<String> hashes = new ArrayList<>();
+        private final List<ParsedRow> rows = new ArrayList<>();
+
+        // Returns an error instead of adding a row whose password fields are unusable
+        String add(ParsedRow parsed) {
+            UserImportRow row = parsed.row();
+            String hash = null;
+            if (row.getPasswordHash() != null && !row.getPasswordHash().isBlank()) {
+                if (row.getPassword() != null && !row.getPassword().isEmpty()) {
+                    return "Provide either password or passwordHash, not both";
+                }
+                hash = normalizeHash(row.getPasswordHash());
+                if (hash == null) {
+                    return "passwordHash: must be a BCrypt hash";
+                }
+            }
+            users.add(row.toRegisterRequest());
+            hashes.add(hash);
+            rows.add(parsed);
+            return null;
+        }
+
+        int size() {
+            return users.size();
+        }
+
+        void flush(Job job) {
+            if (users.isEmpty()) {
+                return;
+            }
+            BulkResult result = bulkUserService.importUsers(users, hashes.toArray(new String[0]), seenUsernames, seenEmails);
+            for (BulkItemResult item : result.getItems()) {
+                if (item.getStatus() == BulkItemResult.Status.FAILED) {
+                    ParsedRow row = rows.get(item.getIndex());
+                    job.fail(row.line(), row.row().getUsername(), item.getMessage());
+                }
+            }
+            job.created.addAndGet(result.getSucceeded());
+            users.clear();
+            hashes.clear();
+            rows.clear();
+        }
+    }
+
+    // A row, or the reason it could not be parsed
+    private record ParsedRow(long line, UserImportRow row, String error) {
+    }
+
+    private interface RowReader {
+        // Null at the end of the upload
+        ParsedRow next() throws IOException;
+    }
+
+    private final class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ParsedRow(line, objectMapper.readValue(text, UserImportRow.class), null);
+                } catch (JsonProcessingException e) {
+                    return new ParsedRow(line, null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row naming the columns (username, email, password or
+     * passwordHash, and optionally firstName, lastName, roles). Quoted fields may contain
+     * commas, doubled quotes and line breaks; roles are separated by semicolons or spaces.
+     */
+    static final class CsvRowReader implements RowReader {
+
+        private final Reader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long line = 1;
+        private int pending = -2;
+
+        CsvRowReader(Reader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV import is empty");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim(), i);
+            }
+            if (!columns.containsKey("username") || !columns.containsKey("email")) {
+                throw new IllegalArgumentException("CSV header must include username and email columns");
+            }
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            while (true) {
+                long start = line;
+                List<String> fields;
+                try {
+                    fields = readRecord();
+                } catch (IllegalArgumentException e) {
+                    return new ParsedRow(start, null, e.getMessage());
+                }
+                if (fields == null) {
+                    return null;
+                }
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                return new ParsedRow(start, toRow(fields), null);
+            }
+        }
+
+        private UserImportRow toRow(List<String> fields) {
+            UserImportRow row = new UserImportRow();
+            row.setUsername(field(fields, "username"));
+            row.setEmail(field(fields, "email"));
+            row.setPassword(field(fields, "password"));
+            row.setPasswordHash(field(fields, "passwordHash"));
+            row.setFirstName(field(fields, "firstName"));
+            row.setLastName(field(fields, "lastName"));
+            String roles = field(fields, "roles");
+            if (roles != null && !roles.isBlank()) {
+                row.setRoles(new LinkedHashSet<>(Arrays.asList(ROLE_SEPARATOR.split(roles.trim()))));
+            }
+            return row;
+        }
+
+        // Empty cells read as null so optional columns behave like missing JSON fields
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        }
+
+        private List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n') {
+                            pending = next;
+                        }
+                    }
+                    if (c != -1) {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return reader.read();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.backend.service;
+
+import com.example.backend.payload.response.UserSummary;
+import com.example.backend.repository.UserRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Case-insensitive user search for the admin console. Candidates come from three index
+ * lookups, each capped: username prefixes and email prefixes from C-collation btree indexes
+ * (read in order, so the closest prefixes come first), and substrings of any name field from
+ * the pg_trgm GIN index. Only the candidates are ranked, so the cost does not grow with the
+ * number of users. Substring matching needs at least three characters, the trigram length.
+ */
+@Service
+public class UserSearchService {
+
+    public static final int MAX_QUERY_LENGTH = 100;
+
+    private static final int CANDIDATES_PER_INDEX = 200;
+    private static final int MIN_SUBSTRING_LENGTH = 3;
+
+    // Must match the expression of idx_users_search_trgm in schema.sql
+    private static final String SEARCH_TEXT =
+            "lower(u.username || ' ' || u.email || ' ' || coalesce(u.first_name, '') || ' ' || coalesce(u.last_name, ''))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserSearchService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Users matching {@code query}: exact username first, then username prefixes, email
+     * prefixes, first or last name prefixes, other substrings, each group by similarity.
+     *
+     * @param role    role name such as "admin" or "ROLE_ADMIN", or null for any role
+     * @param enabled account state to match, or null for both
+     */
+    public List<UserSummary> search(String query, String role, Boolean enabled, int limit) {
+        String normalized = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("q must not be blank");
+        }
+        if (normalized.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("q must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        String roleName = role == null || role.isBlank() ? null : parseRole(role);
+
+        String prefix = escapeLike(normalized) + "%";
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("WITH candidates AS (");
+
+        sql.append("(SELECT u.id FROM users u WHERE lower(u.username) COLLATE \"C\" LIKE ?");
+        args.add(prefix);
+        appendFilters(sql, args, roleName, enabled);
+        sql.append(" ORDER BY lower(u.username) COLLATE \"C\" LIMIT ").append(CANDIDATES_PER_INDEX).append(")");
+
+        sql.append(" UNION (SELECT u.id FROM users u WHERE lower(u.email) COLLATE \"C\" LIKE ?");
+        args.add(prefix);
+        appendFilters(sql, args, roleName, enabled);
+        sql.append(" ORDER BY lower(u.email) COLLATE \"C\" LIMIT ").append(CANDIDATES_PER_INDEX).append(")");
+
+        // Shorter patterns cannot use the trigram index and would scan the table
+        if (normalized.length() >= MIN_SUBSTRING_LENGTH) {
+            sql.append(" UNION (SELECT u.id FROM users u WHERE ").append(SEARCH_TEXT).append(" LIKE ?");
+            args.add("%" + prefix);
+            appendFilters(sql, args, roleName, enabled);
+            sql.append(" LIMIT ").append(CANDIDATES_PER_INDEX).append(")");
+        }
+        sql.append(") ");
+
+        sql.append(UserRepository.USER_SUMMARY_SELECT);
+        sql.append("""
+                JOIN candidates c ON c.id = u.id
+                ORDER BY CASE WHEN lower(u.username) = ? THEN 0
+                              WHEN lower(u.username) COLLATE "C" LIKE ? THEN 1
+                              WHEN lower(u.email) COLLATE "C" LIKE ? THEN 2
+                              WHEN lower(u.first_name) LIKE ? OR lower(u.last_name) LIKE ? THEN 3
+                              ELSE 4 END,
+                         similarity(lower(u.username), ?) DESC,
+                         u.username
+                LIMIT ?
+                """);
+        args.addAll(List.of(normalized, prefix, prefix, prefix, prefix, normalized, limit));
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> toSummary(rs), args.toArray());
+    }
+
+    private static void appendFilters(StringBuilder sql, List<Object> args, String roleName, Boolean enabled) {
+        if (enabled != null) {
+            sql.append(" AND u.enabled = ?");
+            args.add(enabled);
+        }
+        if (roleName != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM user_roles ur JOIN roles r ON r.id = ur.role_id" +
+                    " WHERE ur.user_id = u.id AND r.name = ?)");
+            args.add(roleName);
+        }
+    }
+
+    // Accepts "admin" as well as "ROLE_ADMIN"; unlike registration, unknown names are an error
+    static String parseRole(String role) {
+        return RoleRegistry.lookup(role)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown role: " + role))
+                .name();
+    }
+
+    // Matches the query literally; backslash is the default LIKE escape in PostgreSQL
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static UserSummary toSummary(ResultSet rs) throws SQLException {
+        String roles = rs.getString("roles");
+        return new UserSummary(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getString("email"),
+                rs.getString("firstName"),
+                rs.getString("lastName"),
+                rs.getBoolean("enabled"),
+                rs.getBoolean("emailVerified"),
+                rs.getBoolean("twoFactorEnabled"),
+                rs.getTimestamp("createdAt").toLocalDateTime(),
+                roles == null ? List.of() : Arrays.asList(roles.split(",")));
+    }
+}
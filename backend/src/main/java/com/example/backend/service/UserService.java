@@ -1,23 +1,106 @@
 package com.example.backend.service;
 
 import com.example.backend.entity.User;
+import com.example.backend.payload.Cursor;
+import com.example.backend.payload.response.CursorPage;
+import com.example.backend.payload.response.UserResponse;
+import com.example.backend.payload.response.UserSummary;
 import com.example.backend.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 @Service
-public class UserService {
+public class UserService implements UserDetailsPasswordService {
+
+    // Largest page of listUsers, shared by the user and admin listing endpoints
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final ObjectMapper objectMapper;
     
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserCache userCache,
+                       ObjectMapper objectMapper) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * The JSON body of GET /api/users/me and its ETag, serialized once and kept with the cached
+     * user until a write evicts it. The ETag is a digest of the body rather than updated_at,
+     * which role changes do not touch.
+     */
+    public Optional<UserCache.Profile> getProfile(Long userId) {
+        return userCache.findProfile(userId, user -> {
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(UserResponse.from(user));
+                return new UserCache.Profile(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize profile of user " + userId, e);
+            }
+        });
+    }
+    
+    /**
+     * Keyset page of users ordered by (created_at, id). Reads one extra row to tell whether
+     * another page exists, so no count query is needed.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> listUsers(String cursor, int limit) {
+        List<UserRepository.UserSummaryView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = userRepository.findSummaryPage(limit + 1);
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            rows = userRepository.findSummaryPageAfter(position.timestamp(), position.id(), limit + 1);
+        }
+        
+        boolean hasMore = rows.size() > limit;
+        List<UserSummary> items = rows.stream()
+                .limit(limit)
+                .map(UserService::toSummary)
+                .toList();
+        
+        String nextCursor = null;
+        if (hasMore) {
+            UserSummary last = items.get(items.size() - 1);
+            nextCursor = new Cursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+    
+    private static UserSummary toSummary(UserRepository.UserSummaryView row) {
+        List<String> roles = row.getRoles() == null ? List.of() : Arrays.asList(row.getRoles().split(","));
+        return new UserSummary(
+                row.getId(),
+                row.getUsername(),
+                row.getEmail(),
+                row.getFirstName(),
+                row.getLastName(),
+                row.getEnabled(),
+                row.getEmailVerified(),
+                row.getTwoFactorEnabled(),
+                row.getCreatedAt(),
+                roles);
     }
     
     @Transactional
@@ -44,7 +127,9 @@ public class UserService {
             user.setEmail(newEmail);
         }
         
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.evict(userId);
+        return saved;
     }
     
     @Transactional
@@ -60,6 +145,23 @@ public class UserService {
         // Update password
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userCache.evict(userId);
+    }
+    
+    /**
+     * Called by the authentication provider after a successful login whose stored hash uses an
+     * outdated algorithm or cost, with the password already re-encoded.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails principal, String newPassword) {
+        User user = userRepository.findByUsername(principal.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        user.setPassword(newPassword);
+        User saved = userRepository.save(user);
+        userCache.evict(saved);
+        log.info("Rehashed password for user {}", saved.getId());
+        return saved;
     }
     
     @Transactional
@@ -71,5 +173,6 @@ public class UserService {
         }
         
         userRepository.deleteById(userId);
+        userCache.evict(userId);
     }
 }
@@ -0,0 +1,70 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.UserDailyStats;
+import com.example.backend.repository.UserDailyStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Maintains the user_daily_stats rollup table and serves bucketed series from it. The raw
+ * users and user_activities tables are only read by the rollup job, never by the endpoint.
+ */
+@Service
+public class UserStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsService.class);
+
+    public enum Bucket {
+        DAY, WEEK, MONTH
+    }
+
+    private final UserDailyStatsRepository userDailyStatsRepository;
+
+    public UserStatsService(UserDailyStatsRepository userDailyStatsRepository) {
+        this.userDailyStatsRepository = userDailyStatsRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        refresh();
+    }
+
+    /**
+     * Backfills from the first signup when the table is empty, otherwise recomputes from the
+     * day before the latest rollup so that late writes to yesterday are picked up.
+     */
+    @Scheduled(fixedDelayString = "${app.stats.refresh-interval:PT5M}", initialDelayString = "${app.stats.refresh-interval:PT5M}")
+    @Transactional
+    public void refresh() {
+        LocalDate today = LocalDate.now();
+        LocalDate from = userDailyStatsRepository.findLatestDay()
+                .map(day -> day.minusDays(1))
+                .or(userDailyStatsRepository::findFirstSignupDay)
+                .orElse(today);
+        if (from.isAfter(today)) {
+            from = today;
+        }
+
+        int rows = userDailyStatsRepository.rollup(from, today.plusDays(1));
+        log.debug("Refreshed {} daily user stats rows from {}", rows, from);
+    }
+
+    public Optional<UserDailyStats> getLatest() {
+        return userDailyStatsRepository.findTopByOrderByDayDesc();
+    }
+
+    // Both bounds are inclusive
+    public List<UserDailyStatsRepository.BucketStats> getSeries(LocalDate from, LocalDate to, Bucket bucket) {
+        return userDailyStatsRepository.findBuckets(bucket.name().toLowerCase(), from, to.plusDays(1));
+    }
+}
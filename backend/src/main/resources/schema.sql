@@ -8,22 +8,21 @@ CREATE TABLE IF NOT EXISTS roles (
 CREATE TABLE IF NOT EXISTS users (
     id SERIAL PRIMARY KEY,
     username VARCHAR(50) NOT NULL UNIQUE,
-    password VARCHAR(100) NOT NULL,
+    password VARCHAR(255) NOT NULL,
     email VARCHAR(100) NOT NULL UNIQUE,
     first_name VARCHAR(50),
     last_name VARCHAR(50),
     enabled BOOLEAN NOT NULL DEFAULT FALSE,
     email_verified BOOLEAN NOT NULL DEFAULT FALSE,
-    verification_token VARCHAR(100),
-    verification_token_expiry TIMESTAMP,
-    reset_password_token VARCHAR(100),
-    reset_password_token_expiry TIMESTAMP,
     two_factor_secret VARCHAR(100),
     two_factor_enabled BOOLEAN NOT NULL DEFAULT FALSE,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Encoded hashes carry an {id} prefix; {pbkdf2} hashes are 104 characters
+ALTER TABLE users ALTER COLUMN password TYPE VARCHAR(255);
+
 -- Create user_roles junction table for many-to-many relationship
 CREATE TABLE IF NOT EXISTS user_roles (
     user_id BIGINT NOT NULL,
@@ -33,15 +32,26 @@ CREATE TABLE IF NOT EXISTS user_roles (
     FOREIGN KEY (role_id) REFERENCES roles(id) ON DELETE CASCADE
 );
 
--- Create user_activities table
+-- Create user_activities table, partitioned by month; ActivityPartitionManager creates and drops the partitions
 CREATE TABLE IF NOT EXISTS user_activities (
-    id SERIAL PRIMARY KEY,
+    id BIGSERIAL,
     user_id BIGINT NOT NULL,
     activity_type VARCHAR(50) NOT NULL,
     description TEXT NOT NULL,
     timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     ip_address VARCHAR(50),
     user_agent TEXT,
+    PRIMARY KEY (id, timestamp),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) PARTITION BY RANGE (timestamp);
+
+-- Per-user, per-type daily counts kept after raw activity partitions are dropped
+CREATE TABLE IF NOT EXISTS user_activity_daily_counts (
+    day DATE NOT NULL,
+    user_id BIGINT NOT NULL,
+    activity_type VARCHAR(50) NOT NULL,
+    activity_count BIGINT NOT NULL,
+    PRIMARY KEY (day, user_id, activity_type),
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
@@ -81,16 +91,73 @@ CREATE TABLE IF NOT EXISTS api_keys (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Create user_daily_stats rollup table, maintained by UserStatsService
+CREATE TABLE IF NOT EXISTS user_daily_stats (
+    day DATE PRIMARY KEY,
+    signups BIGINT NOT NULL DEFAULT 0,
+    verifications BIGINT NOT NULL DEFAULT 0,
+    logins BIGINT NOT NULL DEFAULT 0,
+    active_users BIGINT NOT NULL DEFAULT 0,
+    total_users BIGINT NOT NULL DEFAULT 0
+);
+
+-- Create email_outbox table, drained by EmailDispatcher
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    template VARCHAR(50) NOT NULL,
+    variables TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+-- Create one_time_tokens table for verification and password-reset links; only hashes are stored
+CREATE TABLE IF NOT EXISTS one_time_tokens (
+    id BIGSERIAL PRIMARY KEY,
+    token_hash BYTEA NOT NULL,
+    purpose VARCHAR(30) NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Plaintext token columns on users are replaced by one_time_tokens
+DROP INDEX IF EXISTS idx_users_verification_token;
+DROP INDEX IF EXISTS idx_users_reset_password_token;
+ALTER TABLE users DROP COLUMN IF EXISTS verification_token;
+ALTER TABLE users DROP COLUMN IF EXISTS verification_token_expiry;
+ALTER TABLE users DROP COLUMN IF EXISTS reset_password_token;
+ALTER TABLE users DROP COLUMN IF EXISTS reset_password_token_expiry;
+
 -- Create indexes for performance
-CREATE INDEX IF NOT EXISTS idx_user_activities_user_id ON user_activities(user_id);
+-- Serves the keyset activity feed; also covers lookups by user_id alone
+DROP INDEX IF EXISTS idx_user_activities_user_id;
+CREATE INDEX IF NOT EXISTS idx_user_activities_user_ts_id ON user_activities(user_id, timestamp DESC, id DESC);
 CREATE INDEX IF NOT EXISTS idx_user_activities_timestamp ON user_activities(timestamp);
 CREATE INDEX IF NOT EXISTS idx_user_activities_activity_type ON user_activities(activity_type);
 CREATE INDEX IF NOT EXISTS idx_sessions_user_id ON sessions(user_id);
 CREATE INDEX IF NOT EXISTS idx_sessions_token ON sessions(token);
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_users_username ON users(username);
-CREATE INDEX IF NOT EXISTS idx_users_verification_token ON users(verification_token);
-CREATE INDEX IF NOT EXISTS idx_users_reset_password_token ON users(reset_password_token);
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users(created_at, id);
+-- Admin user search (UserSearchService): ordered prefix scans on username and email, and
+-- trigram substring matches across all name fields
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_users_username_prefix ON users((lower(username) COLLATE "C"));
+CREATE INDEX IF NOT EXISTS idx_users_email_prefix ON users((lower(email) COLLATE "C"));
+CREATE INDEX IF NOT EXISTS idx_users_search_trgm ON users USING gin
+    ((lower(username || ' ' || email || ' ' || coalesce(first_name, '') || ' ' || coalesce(last_name, ''))) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due ON email_outbox(next_attempt_at) WHERE status IN ('PENDING', 'SENDING');
+CREATE INDEX IF NOT EXISTS idx_email_outbox_sent_at ON email_outbox(sent_at) WHERE status = 'SENT';
+CREATE INDEX IF NOT EXISTS idx_email_outbox_dead ON email_outbox(created_at) WHERE status = 'DEAD';
+CREATE UNIQUE INDEX IF NOT EXISTS idx_one_time_tokens_hash ON one_time_tokens(token_hash);
+CREATE INDEX IF NOT EXISTS idx_one_time_tokens_user_purpose ON one_time_tokens(user_id, purpose);
+CREATE INDEX IF NOT EXISTS idx_one_time_tokens_expires_at ON one_time_tokens(expires_at);
 
 -- Insert default roles
 INSERT INTO roles (name) VALUES ('ROLE_USER') ON CONFLICT DO NOTHING;
@@ -0,0 +1,77 @@
+package com.example.backend.controller;
+
+import com.example.backend.repository.UserRepository;
+import com.example.backend.security.UserPrincipal;
+import com.example.backend.service.BulkUserService;
+import com.example.backend.service.EmailService;
+import com.example.backend.service.RoleRegistry;
+import com.example.backend.service.UserActivityService;
+import com.example.backend.service.UserCache;
+import com.example.backend.service.UserSearchService;
+import com.example.backend.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class AdminControllerTest {
+
+    private UserRepository userRepository;
+    private AdminController adminController;
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        adminController = new AdminController(
+                userRepository,
+                mock(RoleRegistry.class),
+                mock(UserService.class),
+                mock(UserActivityService.class),
+                mock(PasswordEncoder.class),
+                mock(EmailService.class),
+                mock(UserCache.class),
+                mock(BulkUserService.class),
+                mock(UserSearchService.class));
+
+        UserPrincipal admin = new UserPrincipal(1L, "admin", true, false,
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        authentication = new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void adminStatsIssueASingleAggregateQuery() {
+        UserRepository.UserStats userStats = mock(UserRepository.UserStats.class);
+        when(userStats.getTotalUsers()).thenReturn(10L);
+        when(userStats.getActiveUsers()).thenReturn(8L);
+        when(userStats.getVerifiedUsers()).thenReturn(7L);
+        when(userStats.getAdminUsers()).thenReturn(1L);
+        when(userStats.getModeratorUsers()).thenReturn(2L);
+        when(userStats.getRegularUsers()).thenReturn(9L);
+        when(userRepository.aggregateStats()).thenReturn(userStats);
+
+        ResponseEntity<?> response = adminController.getAdminStats(authentication);
+
+        verify(userRepository, times(1)).aggregateStats();
+        verifyNoMoreInteractions(userRepository);
+
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertThat(body).containsEntry("totalUsers", 10L)
+                .containsEntry("activeUsers", 8L)
+                .containsEntry("verifiedUsers", 7L);
+        assertThat((Map<String, Object>) body.get("usersByRole"))
+                .containsEntry("admin", 1L)
+                .containsEntry("moderator", 2L)
+                .containsEntry("user", 9L);
+    }
+}
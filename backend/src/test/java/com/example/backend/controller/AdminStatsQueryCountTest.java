@@ -0,0 +1,100 @@
+package com.example.backend.controller;
+
+import com.example.backend.repository.UserRepository;
+import com.example.backend.security.UserPrincipal;
+import com.example.backend.service.BulkUserService;
+import com.example.backend.service.EmailService;
+import com.example.backend.service.RoleRegistry;
+import com.example.backend.service.UserActivityService;
+import com.example.backend.service.UserCache;
+import com.example.backend.service.UserSearchService;
+import com.example.backend.service.UserService;
+import com.example.backend.support.EmbeddedPostgresConfiguration;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class AdminStatsQueryCountTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private AdminController adminController;
+
+    @BeforeEach
+    void setUp() {
+        adminController = new AdminController(
+                userRepository,
+                mock(RoleRegistry.class),
+                mock(UserService.class),
+                mock(UserActivityService.class),
+                mock(PasswordEncoder.class),
+                mock(EmailService.class),
+                mock(UserCache.class),
+                mock(BulkUserService.class),
+                mock(UserSearchService.class));
+
+        for (int i = 0; i < 50; i++) {
+            insertUser("user" + i, i % 5 != 0, i % 2 == 0, i == 0 ? List.of("ROLE_USER", "ROLE_ADMIN") : List.of("ROLE_USER"));
+        }
+        insertUser("moderator", true, true, List.of("ROLE_MODERATOR", "ROLE_USER"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void adminStatsAreOneStatementRegardlessOfUserCount() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Map<String, Object> body = (Map<String, Object>) adminController.getAdminStats(
+                new UsernamePasswordAuthenticationToken(admin(), null, admin().getAuthorities())).getBody();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(body).containsEntry("totalUsers", 51L)
+                .containsEntry("activeUsers", 41L)
+                .containsEntry("verifiedUsers", 26L);
+        assertThat((Map<String, Object>) body.get("usersByRole"))
+                .containsEntry("admin", 1L)
+                .containsEntry("moderator", 1L)
+                .containsEntry("user", 51L);
+    }
+
+    private void insertUser(String username, boolean enabled, boolean verified, List<String> roles) {
+        Long id = jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, password, email, enabled, email_verified) VALUES (?, 'x', ?, ?, ?) RETURNING id",
+                Long.class, username, username + "@example.com", enabled, verified);
+        for (String role : roles) {
+            jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) SELECT ?, id FROM roles WHERE name = ?", id, role);
+        }
+    }
+
+    private static UserPrincipal admin() {
+        return new UserPrincipal(1L, "admin", true, false, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.backend.controller;
+
+import com.example.backend.security.UserPrincipal;
+import com.example.backend.service.UserActivityService;
+import com.example.backend.service.UserStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DashboardControllerTest {
+
+    private UserActivityService userActivityService;
+    private DashboardController dashboardController;
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        userActivityService = mock(UserActivityService.class);
+        when(userActivityService.getActivityVersion(7L, "DASHBOARD_VIEW")).thenReturn("7-41");
+        when(userActivityService.getRecentUserActivities(7L, "DASHBOARD_VIEW")).thenReturn(List.of());
+        dashboardController = new DashboardController(userActivityService, mock(UserStatsService.class));
+
+        UserPrincipal principal = new UserPrincipal(7L, "alice", true, false, List.of());
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    @Test
+    void everyFullResponseLogsAViewThatDoesNotChangeTheVersion() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/dashboard/user-stats");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"user-stats-7-40\"");
+
+        ResponseEntity<?> response = dashboardController.getUserDashboardStats(authentication,
+                new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"user-stats-7-41\"");
+        verify(userActivityService).logActivity(eq(7L), eq("DASHBOARD_VIEW"), anyString());
+        verify(userActivityService, never()).getActivityVersion(7L);
+    }
+
+    @Test
+    void matchingRevalidationIsNotModifiedAndNotLogged() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/dashboard/user-stats");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"user-stats-7-41\"");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        ResponseEntity<?> response = dashboardController.getUserDashboardStats(authentication,
+                new ServletWebRequest(request, servletResponse));
+
+        assertThat(response).isNull();
+        assertThat(servletResponse.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        verify(userActivityService, never()).logActivity(anyLong(), anyString(), anyString());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.backend.controller;
+
+import com.example.backend.entity.OneTimeToken;
+import com.example.backend.entity.User;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.security.PasswordHashingRejectedException;
+import com.example.backend.security.ResetPasswordRequest;
+import com.example.backend.service.EmailService;
+import com.example.backend.service.OneTimeTokenService;
+import com.example.backend.service.UserActivityService;
+import com.example.backend.service.UserCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ResetPasswordControllerTest {
+
+    private UserRepository userRepository;
+    private PasswordEncoder passwordEncoder;
+    private OneTimeTokenService tokenService;
+    private ResetPasswordController controller;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        passwordEncoder = mock(PasswordEncoder.class);
+        tokenService = mock(OneTimeTokenService.class);
+        controller = new ResetPasswordController(userRepository, passwordEncoder, mock(EmailService.class),
+                mock(UserActivityService.class), mock(UserCache.class), tokenService);
+    }
+
+    @Test
+    void hashesTheNewPasswordBeforeUsingUpTheToken() {
+        User user = new User();
+        user.setId(7L);
+        when(tokenService.peek("r.token", OneTimeToken.Purpose.PASSWORD_RESET)).thenReturn(Optional.of(7L));
+        when(tokenService.redeem("r.token", OneTimeToken.Purpose.PASSWORD_RESET)).thenReturn(Optional.of(7L));
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(passwordEncoder.encode("new-secret")).thenReturn("{bcrypt}hash");
+
+        assertThat(controller.resetPassword(request("r.token")).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        InOrder order = inOrder(passwordEncoder, tokenService, userRepository);
+        order.verify(passwordEncoder).encode("new-secret");
+        order.verify(tokenService).redeem("r.token", OneTimeToken.Purpose.PASSWORD_RESET);
+        order.verify(userRepository).save(user);
+        assertThat(user.getPassword()).isEqualTo("{bcrypt}hash");
+    }
+
+    @Test
+    void rejectedHashLeavesTheTokenUsable() {
+        when(tokenService.peek("r.token", OneTimeToken.Purpose.PASSWORD_RESET)).thenReturn(Optional.of(7L));
+        when(passwordEncoder.encode(any())).thenThrow(new PasswordHashingRejectedException());
+
+        assertThatThrownBy(() -> controller.resetPassword(request("r.token")))
+                .isInstanceOf(PasswordHashingRejectedException.class);
+        verify(tokenService, never()).redeem(any(), any());
+    }
+
+    @Test
+    void invalidTokenIsRejectedWithoutHashing() {
+        when(tokenService.peek("bogus", OneTimeToken.Purpose.PASSWORD_RESET)).thenReturn(Optional.empty());
+
+        assertThat(controller.resetPassword(request("bogus")).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    private static ResetPasswordRequest request(String token) {
+        ResetPasswordRequest request = new ResetPasswordRequest();
+        request.setToken(token);
+        request.setNewPassword("new-secret");
+        return request;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.backend.controller;
+
+import com.example.backend.repository.UserRepository;
+import com.example.backend.security.UserPrincipal;
+import com.example.backend.service.UserActivityService;
+import com.example.backend.service.UserCache;
+import com.example.backend.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserControllerTest {
+
+    private static final UserCache.Profile PROFILE =
+            new UserCache.Profile("{\"id\":7}".getBytes(StandardCharsets.UTF_8), "\"abc123\"");
+
+    private UserActivityService userActivityService;
+    private UserController userController;
+
+    @BeforeEach
+    void setUp() {
+        UserService userService = mock(UserService.class);
+        userActivityService = mock(UserActivityService.class);
+        when(userService.getProfile(7L)).thenReturn(Optional.of(PROFILE));
+        userController = new UserController(mock(UserRepository.class), userService, userActivityService,
+                mock(UserCache.class));
+
+        UserPrincipal principal = new UserPrincipal(7L, "alice", true, false, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void firstReadReturnsTheCachedBodyWithItsETagAndLogsAView() {
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        ResponseEntity<?> response = userController.getCurrentUser(
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/api/users/me"), servletResponse));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"abc123\"");
+        assertThat(response.getBody()).isSameAs(PROFILE.json());
+        verify(userActivityService).logActivity(eq(7L), eq("PROFILE_VIEW"), anyString());
+    }
+
+    @Test
+    void staleRevalidationReturnsTheChangedProfileAndLogsAView() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"old456\"");
+
+        ResponseEntity<?> response = userController.getCurrentUser(
+                new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(userActivityService).logActivity(eq(7L), eq("PROFILE_VIEW"), anyString());
+    }
+
+    @Test
+    void matchingRevalidationIsNotModifiedAndNotLogged() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc123\"");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        ResponseEntity<?> response = userController.getCurrentUser(new ServletWebRequest(request, servletResponse));
+
+        assertThat(response).isNull();
+        assertThat(servletResponse.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(servletResponse.getHeader(HttpHeaders.ETAG)).isEqualTo("\"abc123\"");
+        verifyNoInteractions(userActivityService);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.backend.security;
+
+import com.example.backend.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void rejectsWorkBeyondThePoolAndQueue() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 1, 1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        encoder.bindTo(registry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (registry.get("app.password.hash.queue.depth").gauge().value() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> encoder.encode("c")).isInstanceOf(PasswordHashingRejectedException.class);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(registry.get("app.password.hash").tag("operation", "encode").timer().count()).isEqualTo(2);
+        assertThat(registry.get("app.password.hash.rejected").functionCounter().count()).isEqualTo(1);
+        encoder.shutdown();
+    }
+
+    @Test
+    void batchEncodingWaitsOutASaturatedPoolInsteadOfFailing() throws Exception {
+        CountDownLatch loginsRunning = new CountDownLatch(1);
+        CountDownLatch releaseLogins = new CountDownLatch(1);
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode(any())).thenAnswer(invocation -> {
+            String raw = invocation.getArgument(0).toString();
+            if (raw.startsWith("login")) {
+                loginsRunning.countDown();
+                releaseLogins.await(5, TimeUnit.SECONDS);
+            }
+            return "hash:" + raw;
+        });
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        encoder.bindTo(registry);
+
+        // Logins hold the only thread and the only queue slot before the import starts
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("login-1"));
+        assertThat(loginsRunning.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("login-2"));
+        while (registry.get("app.password.hash.queue.depth").gauge().value() == 0) {
+            Thread.onSpinWait();
+        }
+
+        CompletableFuture<List<String>> imported = CompletableFuture.supplyAsync(
+                () -> encoder.encodeAll(List.of("a", "b", "c", "d", "e")));
+        Thread.sleep(50);
+        assertThat(imported).isNotDone();
+
+        releaseLogins.countDown();
+        assertThat(imported.get(5, TimeUnit.SECONDS)).containsExactly("hash:a", "hash:b", "hash:c", "hash:d", "hash:e");
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:login-1");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:login-2");
+        assertThat(registry.get("app.password.hash.rejected").functionCounter().count()).isZero();
+        encoder.shutdown();
+    }
+
+    @Test
+    void rehashesLegacyAndWeakerHashesOnLogin() {
+        BoundedPasswordEncoder encoder = new SecurityConfig(null, null, null)
+                .passwordEncoder("bcrypt", 5, 1, 4);
+        User user = new User();
+        user.setUsername("alice");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+        user.setEnabled(true);
+
+        UserDetailsPasswordService passwordService = mock(UserDetailsPasswordService.class);
+        when(passwordService.updatePassword(any(), anyString())).thenAnswer(invocation -> {
+            user.setPassword(invocation.getArgument(1));
+            return user;
+        });
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(encoder);
+        provider.setUserDetailsService(username -> user);
+        provider.setUserDetailsPasswordService(passwordService);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+
+        verify(passwordService).updatePassword(eq(user), startsWith("{bcrypt}$2a$05$"));
+        assertThat(encoder.matches("secret", user.getPassword())).isTrue();
+        assertThat(encoder.upgradeEncoding(user.getPassword())).isFalse();
+
+        // The next login with the migrated hash does not rehash again
+        provider.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+        verify(passwordService, times(1)).updatePassword(any(), anyString());
+        encoder.shutdown();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.backend.security;
+
+import com.example.backend.entity.Role;
+import com.example.backend.entity.User;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.UserCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "bezKoderSecretKeybezKoderSecretKeybezKoderSecretKeybezKoderSecretKey";
+
+    private JwtUtils jwtUtils;
+    private UserDetailsService userDetailsService;
+    private UserCache userCache;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = jwtUtils(86400);
+        userDetailsService = mock(UserDetailsService.class);
+        userCache = new UserCache(mock(UserRepository.class), 100, Duration.ofMinutes(5), 86400);
+        filter = new JwtAuthenticationFilter(jwtUtils, userDetailsService, userCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void freshTokenAuthenticatesFromItsClaimsAlone() throws Exception {
+        String token = jwtUtils.generateToken(user(true, Role.ERole.ROLE_USER));
+
+        Authentication authentication = authenticate(token);
+
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        assertThat(principal.getId()).isEqualTo(7L);
+        assertThat(principal.getUsername()).isEqualTo("alice");
+        assertThat(roles(authentication)).containsExactly("ROLE_USER");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void tokenIssuedBeforeAnEvictIsReloadedWithTheNewRoles() throws Exception {
+        String token = jwtUtils.generateToken(user(true, Role.ERole.ROLE_USER));
+        userCache.evict(7L);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user(true, Role.ERole.ROLE_ADMIN));
+
+        Authentication authentication = authenticate(token);
+
+        assertThat(roles(authentication)).containsExactly("ROLE_ADMIN");
+        verify(userDetailsService).loadUserByUsername("alice");
+    }
+
+    @Test
+    void disabledUsersStayUnauthenticated() throws Exception {
+        String token = jwtUtils.generateToken(user(true, Role.ERole.ROLE_USER));
+        userCache.evict(7L);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user(false, Role.ERole.ROLE_USER));
+
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void tokenWithoutAUserIdIsCheckedAgainstTheDatabase() throws Exception {
+        // Issued before the userId claim was added
+        String token = Jwts.builder()
+                .setClaims(Map.of("roles", List.of("ROLE_USER")))
+                .setSubject("alice")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user(true, Role.ERole.ROLE_MODERATOR));
+
+        Authentication authentication = authenticate(token);
+
+        assertThat(((UserPrincipal) authentication.getPrincipal()).getId()).isEqualTo(7L);
+        assertThat(roles(authentication)).containsExactly("ROLE_MODERATOR");
+    }
+
+    @Test
+    void expiredAndForgedTokensHaveNoClaims() throws Exception {
+        String expired = jwtUtils(-60).generateToken(user(true, Role.ERole.ROLE_USER));
+        String forged = Jwts.builder()
+                .setSubject("alice")
+                .claim("userId", 7L)
+                .claim("roles", List.of("ROLE_ADMIN"))
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET.replace('b', 'c'))), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(jwtUtils.parseClaims(expired)).isNull();
+        assertThat(jwtUtils.parseClaims(forged)).isNull();
+        assertThat(authenticate(forged)).isNull();
+        verifyNoInteractions(userDetailsService);
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static Set<String> roles(Authentication authentication) {
+        return AuthorityUtils.authorityListToSet(authentication.getAuthorities());
+    }
+
+    private static JwtUtils jwtUtils(int expirationSeconds) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", expirationSeconds);
+        ReflectionTestUtils.setField(jwtUtils, "stateless", true);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    private static User user(boolean enabled, Role.ERole role) {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("alice");
+        user.setEnabled(enabled);
+        user.setRoles(Set.of(new Role(role)));
+        return user;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("app.rate-limit.login.per-ip", "5/1h")
+            .withProperty("app.rate-limit.login.per-identity", "2/1h");
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void limitsPerIdentityAcrossAddresses() {
+        RateLimiter limiter = limiter(environment, 1000);
+
+        limiter.check(RateLimiter.Action.LOGIN, request("10.0.0.1"), "alice");
+        limiter.check(RateLimiter.Action.LOGIN, request("10.0.0.2"), "Alice ");
+
+        assertThatThrownBy(() -> limiter.check(RateLimiter.Action.LOGIN, request("10.0.0.3"), "alice"))
+                .isInstanceOfSatisfying(RateLimitExceededException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isBetween(1L, 1800L));
+        limiter.check(RateLimiter.Action.LOGIN, request("10.0.0.3"), "bob");
+
+        assertThat(decisions("identity", "allowed")).isEqualTo(3);
+        assertThat(decisions("identity", "rejected")).isEqualTo(1);
+        assertThat(decisions("ip", "allowed")).isEqualTo(4);
+    }
+
+    @Test
+    void ignoresForwardedForHeadersSentByTheClient() {
+        RateLimiter limiter = limiter(environment, 1000);
+
+        // Only the RemoteIpValve may rewrite the address, and only for trusted proxies
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = request("198.51.100.9");
+            request.addHeader("X-Forwarded-For", "203.0.113." + i);
+            limiter.check(RateLimiter.Action.LOGIN, request, "user" + i);
+        }
+
+        MockHttpServletRequest spoofed = request("198.51.100.9");
+        spoofed.addHeader("X-Forwarded-For", "203.0.113.99");
+        assertThatThrownBy(() -> limiter.check(RateLimiter.Action.LOGIN, spoofed, "user9"))
+                .isInstanceOf(RateLimitExceededException.class);
+        assertThat(decisions("ip", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    void sweepDropsOnlyRefilledBuckets() throws InterruptedException {
+        RateLimiter limiter = limiter(new MockEnvironment()
+                .withProperty("app.rate-limit.login.per-ip", "1000/1ms"), 1000);
+
+        limiter.check(RateLimiter.Action.LOGIN, request("10.0.0.1"), "alice");
+        limiter.check(RateLimiter.Action.LOGIN, request("10.0.0.1"), "bob");
+        Thread.sleep(5);
+        limiter.sweep();
+
+        // The IP bucket refills within the millisecond; the identity buckets take minutes
+        assertThat(registry.get("app.rate-limit.buckets").gauge().value()).isEqualTo(2);
+        assertThat(evictions("idle")).isEqualTo(1);
+    }
+
+    @Test
+    void fullMapEvictsTheBucketsClosestToRefillingAndKeepsHeavyUsersLimited() {
+        RateLimiter limiter = limiter(environment, 3);
+        for (int i = 0; i < 5; i++) {
+            limiter.check(RateLimiter.Action.LOGIN, request("10.0.0.1"), null);
+        }
+        limiter.check(RateLimiter.Action.LOGIN, request("10.0.0.2"), null);
+        limiter.check(RateLimiter.Action.LOGIN, request("10.0.0.3"), null);
+
+        // A new client gets its own bucket rather than sharing one with every other newcomer
+        for (int i = 0; i < 5; i++) {
+            limiter.check(RateLimiter.Action.LOGIN, request("10.0.0.4"), null);
+        }
+
+        assertThat(evictions("capacity")).isEqualTo(2);
+        assertThatThrownBy(() -> limiter.check(RateLimiter.Action.LOGIN, request("10.0.0.1"), null))
+                .isInstanceOf(RateLimitExceededException.class);
+        assertThatThrownBy(() -> limiter.check(RateLimiter.Action.LOGIN, request("10.0.0.4"), null))
+                .isInstanceOf(RateLimitExceededException.class);
+    }
+
+    private RateLimiter limiter(MockEnvironment environment, int maxBuckets) {
+        RateLimiter limiter = new RateLimiter(environment, true, maxBuckets);
+        limiter.bindTo(registry);
+        return limiter;
+    }
+
+    private double decisions(String keyType, String outcome) {
+        return registry.get("app.rate-limit.decisions").tag("action", "login")
+                .tag("key_type", keyType).tag("outcome", outcome).functionCounter().count();
+    }
+
+    private double evictions(String reason) {
+        return registry.get("app.rate-limit.evictions").tag("reason", reason).functionCounter().count();
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.backend.service;
+
+import com.example.backend.support.EmbeddedPostgresConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class ActivityPartitionMaintenanceTest {
+
+    private static final String CURRENT_PARTITION =
+            "user_activities_p" + YearMonth.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ActivityPartitionManager manager;
+    private long alice;
+    private long bob;
+
+    @BeforeEach
+    void setUp() {
+        manager = new ActivityPartitionManager(jdbcTemplate, dataSource, transactionManager,
+                new ClassPathResource("schema.sql"), 1, 6);
+        alice = insertUser("alice");
+        bob = insertUser("bob");
+    }
+
+    @Test
+    void convertsALegacyTableKeepingIdsAndTheSequence() {
+        jdbcTemplate.execute("DROP TABLE user_activities CASCADE");
+        jdbcTemplate.execute("CREATE TABLE user_activities (id BIGSERIAL PRIMARY KEY, " +
+                "user_id BIGINT NOT NULL REFERENCES users(id), activity_type VARCHAR(50) NOT NULL, " +
+                "description TEXT NOT NULL, timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                "ip_address VARCHAR(50), user_agent TEXT)");
+        jdbcTemplate.execute("CREATE INDEX idx_user_activities_timestamp ON user_activities(timestamp)");
+        insertActivity(alice, "LOGIN", LocalDateTime.of(2024, 5, 10, 9, 0));
+        insertActivity(bob, "LOGIN", LocalDateTime.now());
+        insertActivity(bob, "LOGIN", LocalDateTime.now().plusYears(3));
+
+        manager.init();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('user_activities')", String.class))
+                .isEqualTo("p");
+        assertThat(jdbcTemplate.query("SELECT tableoid::regclass::text AS partition, id FROM user_activities ORDER BY id",
+                (rs, i) -> tuple(rs.getString("partition"), rs.getLong("id"))))
+                .containsExactly(
+                        tuple("user_activities_p202405", 1L),
+                        tuple(CURRENT_PARTITION, 2L),
+                        tuple("user_activities_default", 3L));
+        assertThat(insertActivity(alice, "LOGIN", LocalDateTime.now())).isEqualTo(4);
+        // The view dropped with the old table is recreated on the new one
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM recent_user_activities", Long.class)).isEqualTo(3);
+    }
+
+    @Test
+    void maintenanceRollsUpExpiredMonthsAndStrayDefaultRows() {
+        manager.init();
+        manager.ensurePartitions(YearMonth.of(2024, 5));
+        insertActivity(alice, "LOGIN", LocalDateTime.of(2024, 5, 1, 9, 0));
+        insertActivity(alice, "LOGIN", LocalDateTime.of(2024, 5, 1, 18, 0));
+        insertActivity(bob, "LOGIN", LocalDateTime.of(2024, 5, 2, 9, 0));
+        // March 2024 was rolled up and dropped earlier; a late row for it lands in the default partition
+        jdbcTemplate.update("INSERT INTO user_activity_daily_counts VALUES ('2024-03-01', ?, 'LOGIN', 5)", alice);
+        insertActivity(alice, "LOGIN", LocalDateTime.of(2024, 3, 1, 12, 0));
+        insertActivity(bob, "LOGIN", LocalDateTime.now());
+
+        manager.maintain();
+
+        assertThat(exists("user_activities_p202405")).isFalse();
+        assertThat(exists("user_activities_p202406")).isFalse();
+        assertThat(exists(CURRENT_PARTITION)).isTrue();
+        assertThat(jdbcTemplate.query("SELECT day, user_id, activity_count FROM user_activity_daily_counts ORDER BY day, user_id",
+                (rs, i) -> tuple(rs.getString("day"), rs.getLong("user_id"), rs.getLong("activity_count"))))
+                .containsExactly(
+                        tuple("2024-03-01", alice, 6L),
+                        tuple("2024-05-01", alice, 2L),
+                        tuple("2024-05-02", bob, 1L));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_activities_default", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_activities", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void newPartitionTakesOverRowsFromTheDefaultPartition() {
+        manager.init();
+        insertActivity(alice, "LOGIN", LocalDateTime.of(2030, 1, 15, 9, 0));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_activities_default", Long.class)).isEqualTo(1);
+
+        manager.ensurePartitions(YearMonth.of(2030, 1));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_activities_default", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_activities_p203001", Long.class)).isEqualTo(1);
+    }
+
+    private boolean exists(String table) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table);
+    }
+
+    private long insertUser(String username) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, password, email, enabled) VALUES (?, 'x', ?, true) RETURNING id",
+                Long.class, username, username + "@example.com");
+    }
+
+    private long insertActivity(long userId, String type, LocalDateTime timestamp) {
+        return jdbcTemplate.queryForObject("INSERT INTO user_activities (user_id, activity_type, description, timestamp) " +
+                "VALUES (?, ?, ?, ?) RETURNING id", Long.class, userId, type, type, timestamp);
+    }
+}
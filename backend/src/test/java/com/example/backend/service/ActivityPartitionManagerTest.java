@@ -0,0 +1,31 @@
+package com.example.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActivityPartitionManagerTest {
+
+    @Test
+    void selectsOnlyMonthlyPartitionsOlderThanTheRetentionWindow() {
+        List<String> partitions = List.of(
+                "user_activities_p202604",
+                "user_activities_p202601",
+                "user_activities_p202603",
+                "user_activities_p202610",
+                "user_activities_legacy",
+                "user_activities_p2026");
+
+        assertThat(ActivityPartitionManager.expiredPartitions(partitions, YearMonth.of(2026, 4)))
+                .containsExactly(YearMonth.of(2026, 1), YearMonth.of(2026, 3));
+    }
+
+    @Test
+    void parsesPartitionMonths() {
+        assertThat(ActivityPartitionManager.monthOf("user_activities_p202612")).contains(YearMonth.of(2026, 12));
+        assertThat(ActivityPartitionManager.monthOf("user_activity_daily_counts")).isEmpty();
+    }
+}
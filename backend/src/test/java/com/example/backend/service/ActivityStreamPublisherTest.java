@@ -0,0 +1,124 @@
+package com.example.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ActivityStreamPublisherTest {
+
+    private final List<Runnable> pendingSends = new ArrayList<>();
+
+    @Test
+    void sendsMatchingEventsInOrder() {
+        ActivityStreamPublisher publisher = publisher(Runnable::run, 10);
+        RecordingEmitter emitter = new RecordingEmitter();
+        publisher.subscribe(emitter, 7L, "LOGIN", null);
+
+        publisher.publish(record(7L, "LOGIN"));
+        publisher.publish(record(8L, "LOGIN"));
+        publisher.publish(record(7L, "PROFILE_VIEW"));
+        publisher.publish(record(7L, "LOGIN"));
+
+        assertThat(emitter.messages).hasSize(3);
+        assertThat(emitter.messages.get(0)).contains(":connected");
+        assertThat(emitter.activityIds()).extracting(ActivityStreamPublisherTest::sequence).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void slowSubscribersLoseTheOldestEvents() {
+        ActivityStreamPublisher publisher = publisher(pendingSends::add, 2);
+        RecordingEmitter emitter = new RecordingEmitter();
+        publisher.subscribe(emitter, null, null, null);
+
+        for (int i = 0; i < 5; i++) {
+            publisher.publish(record(7L, "LOGIN"));
+        }
+        pendingSends.forEach(Runnable::run);
+
+        assertThat(emitter.messages.get(1)).contains("event:dropped").contains("count=3");
+        assertThat(emitter.activityIds()).extracting(ActivityStreamPublisherTest::sequence).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void reconnectingClientsGetWhatTheyMissed() {
+        ActivityStreamPublisher publisher = publisher(Runnable::run, 10);
+        RecordingEmitter live = new RecordingEmitter();
+        publisher.subscribe(live, null, null, null);
+        publisher.publish(record(7L, "LOGIN"));
+        publisher.publish(record(8L, "LOGIN"));
+        publisher.publish(record(9L, "LOGIN"));
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        publisher.subscribe(resumed, null, null, live.activityIds().get(0));
+        RecordingEmitter unknown = new RecordingEmitter();
+        publisher.subscribe(unknown, null, null, "earlier-run-2");
+
+        assertThat(resumed.messages).noneMatch(message -> message.contains("event:reset"));
+        assertThat(resumed.activityIds()).isEqualTo(live.activityIds().subList(1, 3));
+        assertThat(unknown.messages.get(1)).contains("event:reset");
+        assertThat(unknown.activityIds()).isEqualTo(live.activityIds());
+    }
+
+    @Test
+    void rejectsSubscribersOverTheLimitAndFreesSlotsOnClose() {
+        ActivityStreamPublisher publisher = publisher(Runnable::run, 10);
+        RecordingEmitter first = new RecordingEmitter();
+        publisher.subscribe(first, null, null, null);
+        publisher.subscribe(new RecordingEmitter(), null, null, null);
+        publisher.subscribe(new RecordingEmitter(), null, null, null);
+
+        assertThatThrownBy(() -> publisher.subscribe(new RecordingEmitter(), null, null, null))
+                .isInstanceOf(IllegalStateException.class);
+
+        first.failing = true;
+        publisher.publish(record(7L, "LOGIN"));
+
+        publisher.subscribe(new RecordingEmitter(), null, null, null);
+    }
+
+    private static ActivityStreamPublisher publisher(Executor executor, int bufferSize) {
+        return new ActivityStreamPublisher(executor, 3, bufferSize, 100, Duration.ofMinutes(1), Duration.ofSeconds(3));
+    }
+
+    private static UserActivityWriter.ActivityRecord record(Long userId, String type) {
+        return new UserActivityWriter.ActivityRecord(userId, type, "Test", LocalDateTime.of(2024, 5, 1, 12, 0),
+                "10.0.0.1", "JUnit");
+    }
+
+    private static long sequence(String eventId) {
+        return Long.parseLong(eventId.substring(eventId.lastIndexOf('-') + 1));
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> messages = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            messages.add(builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining()));
+        }
+
+        List<String> activityIds() {
+            return messages.stream()
+                    .filter(message -> message.contains("event:activity"))
+                    .map(message -> message.substring(3, message.indexOf('\n')))
+                    .toList();
+        }
+    }
+}
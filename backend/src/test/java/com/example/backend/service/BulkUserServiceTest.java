@@ -0,0 +1,131 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Role;
+import com.example.backend.payload.response.BulkItemResult;
+import com.example.backend.payload.response.BulkResult;
+import com.example.backend.security.BoundedPasswordEncoder;
+import com.example.backend.security.RegisterRequest;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BulkUserServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private BoundedPasswordEncoder passwordEncoder;
+    private UserCache userCache;
+    private BulkUserService bulkUserService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        passwordEncoder = mock(BoundedPasswordEncoder.class);
+        userCache = mock(UserCache.class);
+        RoleRegistry roleRegistry = mock(RoleRegistry.class);
+        Role userRole = new Role(Role.ERole.ROLE_USER);
+        userRole.setId(1L);
+        when(roleRegistry.resolve(any())).thenReturn(Set.of(userRole));
+
+        bulkUserService = new BulkUserService(jdbcTemplate, mock(PlatformTransactionManager.class), passwordEncoder,
+                roleRegistry, userCache, mock(EmailService.class),
+                Validation.buildDefaultValidatorFactory().getValidator(), 500, 5);
+    }
+
+    @Test
+    void createChecksUniquenessOnceAndReportsEachItem() throws Exception {
+        ResultSet taken = mock(ResultSet.class);
+        when(taken.getString(1)).thenReturn("bob");
+        when(taken.getString(2)).thenReturn("bob@example.com");
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(2).processRow(taken);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+        when(passwordEncoder.encodeAll(any())).thenAnswer(invocation ->
+                invocation.<List<String>>getArgument(0).stream().map(raw -> "hash-" + raw).toList());
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class), any(KeyHolder.class)))
+                .thenAnswer(invocation -> {
+                    KeyHolder keys = invocation.getArgument(2);
+                    keys.getKeyList().add(Map.of("id", 100L));
+                    keys.getKeyList().add(Map.of("id", 101L));
+                    return new int[] {1, 1};
+                });
+
+        BulkResult result = bulkUserService.createUsers(List.of(
+                user("alice", "alice@example.com"),
+                user("eve", "not-an-email"),
+                user("alice", "alice2@example.com"),
+                user("bob", "bob2@example.com"),
+                user("carol", "carol@example.com")));
+
+        assertThat(result.getItems()).extracting(BulkItemResult::getStatus).containsExactly(
+                BulkItemResult.Status.CREATED,
+                BulkItemResult.Status.FAILED,
+                BulkItemResult.Status.FAILED,
+                BulkItemResult.Status.FAILED,
+                BulkItemResult.Status.CREATED);
+        assertThat(result.getItems().get(0).getId()).isEqualTo(100L);
+        assertThat(result.getItems().get(4).getId()).isEqualTo(101L);
+        assertThat(result.getItems().get(1).getMessage()).startsWith("email:");
+        assertThat(result.getItems().get(2).getMessage()).isEqualTo("Username appears more than once in the request");
+        assertThat(result.getItems().get(3).getMessage()).isEqualTo("Username is already taken");
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+
+        verify(jdbcTemplate, times(1)).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+        verify(passwordEncoder).encodeAll(List.of("secret1", "secret1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void disableReportsSelfDuplicateAndMissingIds() {
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenReturn(List.of(5L));
+
+        BulkResult result = bulkUserService.disableUsers(List.of(1L, 5L, 5L), 1L);
+
+        assertThat(result.getItems()).extracting(BulkItemResult::getStatus).containsExactly(
+                BulkItemResult.Status.FAILED,
+                BulkItemResult.Status.DISABLED,
+                BulkItemResult.Status.FAILED);
+        assertThat(result.getItems().get(0).getMessage()).contains("their own account");
+        verify(userCache).evict(5L);
+
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenReturn(List.of());
+        assertThat(bulkUserService.disableUsers(List.of(6L), 1L).getItems().get(0).getMessage()).isEqualTo("User not found");
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedRequests() {
+        assertThatThrownBy(() -> bulkUserService.disableUsers(List.of(), 1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bulkUserService.deleteUsers(List.of(2L, 3L, 4L, 5L, 6L, 7L), 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("At most 5");
+    }
+
+    private static RegisterRequest user(String username, String email) {
+        RegisterRequest user = new RegisterRequest();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword("secret1");
+        return user;
+    }
+}
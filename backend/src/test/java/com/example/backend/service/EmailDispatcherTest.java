@@ -0,0 +1,119 @@
+package com.example.backend.service;
+
+import com.example.backend.config.WorkerThreads;
+import com.example.backend.entity.EmailOutboxMessage;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailOutbox emailOutbox;
+    private JavaMailSenderImpl mailSender;
+    private SpringTemplateEngine templateEngine;
+
+    @BeforeEach
+    void setUp() {
+        emailOutbox = mock(EmailOutbox.class);
+        when(emailOutbox.readVariables(any())).thenReturn(Map.of(
+                "code", "123456",
+                "appName", "WebApp",
+                "expiryTime", "5 minutes"));
+
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deliversAChunkAndMarksItSent() throws Exception {
+        EmailDispatcher dispatcher = newDispatcher();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        dispatcher.bindTo(registry);
+
+        dispatcher.deliver(List.of(message(1L, "a@example.com", 1), message(2L, "b@example.com", 1)));
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(2);
+        assertThat(received[0].getSubject()).isEqualTo("Your Two-Factor Authentication Code");
+        assertThat(received[0].getContent()).isNotNull();
+
+        verify(emailOutbox).markSent((Collection<Long>) argThat(ids -> ((Collection<Long>) ids).containsAll(List.of(1L, 2L))));
+        verify(emailOutbox, never()).markFailed(any(), any(), anyBoolean(), any());
+        assertThat(registry.get("app.email.messages").tag("outcome", "sent").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void schedulesRetryWhenTheServerIsUnreachable() {
+        greenMail.stop();
+        EmailDispatcher dispatcher = newDispatcher();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        dispatcher.bindTo(registry);
+        EmailOutboxMessage message = message(3L, "c@example.com", 1);
+
+        dispatcher.deliver(List.of(message));
+
+        verify(emailOutbox).markFailed(eq(message), anyString(), eq(false), eq(Duration.ofSeconds(30)));
+        assertThat(registry.get("app.email.send").tag("outcome", "failure").timer().count()).isEqualTo(1);
+        assertThat(registry.get("app.email.send").tag("outcome", "success").timer().count()).isZero();
+        assertThat(registry.get("app.email.messages").tag("outcome", "retried").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void deadLettersAfterTheLastAttempt() {
+        greenMail.stop();
+        EmailDispatcher dispatcher = newDispatcher();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        dispatcher.bindTo(registry);
+        EmailOutboxMessage message = message(4L, "d@example.com", 6);
+        when(emailOutbox.countDead()).thenReturn(1L);
+
+        dispatcher.deliver(List.of(message));
+
+        verify(emailOutbox).markFailed(eq(message), anyString(), eq(true), any());
+        assertThat(registry.get("app.email.messages").tag("outcome", "dead_lettered").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("app.email.outbox.dead").gauge().value()).isEqualTo(1);
+    }
+
+    private EmailDispatcher newDispatcher() {
+        EmailDispatcher dispatcher = new EmailDispatcher(emailOutbox, mailSender, new EmailTemplateRenderer(templateEngine),
+                new WorkerThreads(new MockEnvironment()), 1, 20, 6, Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@webapp.com");
+        return dispatcher;
+    }
+
+    private static EmailOutboxMessage message(Long id, String to, int attempts) {
+        EmailOutboxMessage message = new EmailOutboxMessage(to, "Your Two-Factor Authentication Code", "two-factor-email", "{}");
+        message.setId(id);
+        message.setAttempts(attempts);
+        return message;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.EmailOutboxMessage;
+import com.example.backend.support.EmbeddedPostgresConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfiguration.class, JacksonAutoConfiguration.class, EmailOutbox.class})
+@TestPropertySource(properties = {
+        "app.email.outbox.sent-retention=7d",
+        "app.email.outbox.dead-retention=30d",
+        "app.email.outbox.purge-batch-size=2"
+})
+class EmailOutboxTest {
+
+    @Autowired
+    private EmailOutbox emailOutbox;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void purgeDeletesSentAndDeadMessagesPastTheirRetentionInBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            insert("old-sent-" + i, "SENT", now.minusDays(30), now.minusDays(8));
+        }
+        insert("recent-sent", "SENT", now.minusDays(30), now.minusDays(1));
+        for (int i = 0; i < 3; i++) {
+            insert("old-dead-" + i, "DEAD", now.minusDays(31), null);
+        }
+        insert("recent-dead", "DEAD", now.minusDays(10), null);
+        insert("old-pending", "PENDING", now.minusDays(60), null);
+
+        emailOutbox.purge();
+
+        assertThat(jdbcTemplate.queryForList("SELECT recipient FROM email_outbox ORDER BY recipient", String.class))
+                .containsExactly("old-pending", "recent-dead", "recent-sent");
+        assertThat(emailOutbox.countDead()).isEqualTo(1);
+    }
+
+    @Test
+    void finishedMessagesKeepNoLinksOrCodes() {
+        EmailOutboxMessage sent = emailOutbox.enqueue("sent@example.com", "Reset", "reset-password-email",
+                Map.of("resetUrl", "https://app/reset-password?token=r.secret"));
+        EmailOutboxMessage dead = emailOutbox.enqueue("dead@example.com", "Code", "two-factor-email",
+                Map.of("code", "123456"));
+        EmailOutboxMessage retried = emailOutbox.enqueue("retry@example.com", "Verify", "verification-email",
+                Map.of("verificationUrl", "https://app/verify-email?token=v.secret"));
+        emailOutbox.claimDue(10, Duration.ofMinutes(5));
+
+        emailOutbox.markSent(List.of(sent.getId()));
+        emailOutbox.markFailed(dead, "550 mailbox unavailable", true, Duration.ZERO);
+        emailOutbox.markFailed(retried, "421 try again", false, Duration.ofSeconds(30));
+
+        assertThat(variables(sent)).isEqualTo("{}");
+        assertThat(variables(dead)).isEqualTo("{}");
+        // A retry still has to render the message
+        assertThat(variables(retried)).contains("v.secret");
+        assertThat(jdbcTemplate.queryForList("SELECT status FROM email_outbox ORDER BY id", String.class))
+                .containsExactly("SENT", "DEAD", "PENDING");
+    }
+
+    private String variables(EmailOutboxMessage message) {
+        return jdbcTemplate.queryForObject("SELECT variables FROM email_outbox WHERE id = ?", String.class, message.getId());
+    }
+
+    private void insert(String recipient, String status, LocalDateTime createdAt, LocalDateTime sentAt) {
+        jdbcTemplate.update("INSERT INTO email_outbox (recipient, subject, template, variables, status, created_at, sent_at) " +
+                        "VALUES (?, 'Subject', 'two-factor-email', '{}', ?, ?, ?)",
+                recipient, status, createdAt, sentAt);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailTemplateRendererTest {
+
+    private EmailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        renderer = new EmailTemplateRenderer(templateEngine);
+    }
+
+    @Test
+    void precompiledOutputMatchesThymeleafForEveryTemplate() {
+        for (String template : List.of("verification-email", "reset-password-email", "password-reset-confirmation",
+                "two-factor-email", "account-deletion", "account-update")) {
+            // The first call compiles and verifies, the second is served from the compiled template
+            renderer.render(template, variables("alice", "111111"));
+            Map<String, Object> variables = variables("bob", "222222");
+
+            assertThat(renderer.render(template, variables))
+                    .as(template)
+                    .isEqualTo(renderer.renderWithThymeleaf(template, variables));
+        }
+    }
+
+    @Test
+    void escapesValues() {
+        renderer.render("account-update", variables("alice", "1"));
+
+        String html = renderer.render("account-update", variables("<script>&\"", "1"));
+
+        assertThat(html).contains("&lt;script&gt;&amp;&quot;").doesNotContain("<script>");
+    }
+
+    @Test
+    void fallsBackToThymeleafWhenTheTemplateBranchesOnAVariable() {
+        renderer.render("conditional-test", Map.of("code", "123456"));
+
+        assertThat(renderer.render("conditional-test", Map.of("code", "12"))).contains("No code");
+        assertThat(renderer.render("conditional-test", Map.of("code", "654321"))).contains("654321");
+    }
+
+    private Map<String, Object> variables(String username, String code) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("username", username);
+        variables.put("code", code);
+        variables.put("appName", "WebApp");
+        variables.put("timestamp", "2026-01-01 10:00:00");
+        variables.put("supportEmail", "support@example.com");
+        variables.put("verificationUrl", "http://localhost:3000/verify-email?token=" + code);
+        variables.put("resetUrl", "http://localhost:3000/reset-password?token=" + code + "&a=b");
+        variables.put("expiryTime", "1 hour");
+        return variables;
+    }
+}
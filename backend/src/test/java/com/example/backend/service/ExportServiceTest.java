@@ -0,0 +1,144 @@
+package com.example.backend.service;
+
+import com.example.backend.support.EmbeddedPostgresConfiguration;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfiguration.class, JacksonAutoConfiguration.class, ExportService.class})
+class ExportServiceTest {
+
+    private static final LocalDateTime MAY_1 = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS user_activities_p202405 PARTITION OF user_activities " +
+                "FOR VALUES FROM ('2024-05-01') TO ('2024-06-01')");
+    }
+
+    @Test
+    void csvQuotesFieldsThatContainSeparatorsQuotesOrLineBreaks() throws IOException {
+        insertUser("plain", "Ann", null, MAY_1);
+        insertUser("tricky", "Smith, \"Jr\"", "two\nlines", MAY_1.plusHours(1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportUsers(ExportService.Format.CSV, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(rows).isEqualTo(2);
+        assertThat(csv).startsWith("id,username,email,firstName,lastName,enabled,");
+        assertThat(csv).contains(",plain,plain@example.com,Ann,,");
+        assertThat(csv).contains(",tricky,tricky@example.com,\"Smith, \"\"Jr\"\"\",\"two\nlines\",");
+        // Records end in CRLF; the bare LF above is inside a quoted field
+        assertThat(csv.split("\r\n")).hasSize(3);
+        assertThat(csv).endsWith("\r\n");
+    }
+
+    @Test
+    void emptyCsvExportStillHasAHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportActivities(ExportService.Format.CSV, -1L, null, null, null, out);
+
+        assertThat(rows).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("id,userId,activityType,description,timestamp,ipAddress,userAgent\r\n");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerMatchingActivity() throws IOException {
+        long alice = insertUser("alice", null, null, MAY_1);
+        long bob = insertUser("bob", null, null, MAY_1);
+        insertActivity(alice, "LOGIN", "line one\nline two", MAY_1.plusHours(9));
+        insertActivity(alice, "LOGIN", "second", MAY_1.plusDays(1));
+        insertActivity(alice, "PROFILE_VIEW", "viewed", MAY_1.plusHours(10));
+        insertActivity(bob, "LOGIN", "bob", MAY_1.plusHours(11));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportActivities(ExportService.Format.NDJSON, alice, "LOGIN",
+                MAY_1, MAY_1.plusDays(1), out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).isEqualTo(1);
+        assertThat(lines).hasSize(1);
+        JsonNode activity = objectMapper.readTree(lines.get(0));
+        assertThat(activity.get("userId").asLong()).isEqualTo(alice);
+        assertThat(activity.get("activityType").asText()).isEqualTo("LOGIN");
+        assertThat(activity.get("description").asText()).isEqualTo("line one\nline two");
+        assertThat(activity.get("timestamp").asText()).isEqualTo("2024-05-01T09:00");
+        assertThat(activity.get("ipAddress").isNull()).isTrue();
+    }
+
+    @Test
+    void largeExportsReachTheOutputStreamInChunks() throws IOException {
+        long alice = insertUser("alice", null, null, MAY_1);
+        jdbcTemplate.update("INSERT INTO user_activities (user_id, activity_type, description, timestamp) " +
+                "SELECT ?, 'LOGIN', repeat('x', 100), ? + n * interval '1 second' FROM generate_series(1, 2500) n",
+                alice, MAY_1);
+        RecordingOutputStream out = new RecordingOutputStream();
+
+        long rows = exportService.exportActivities(ExportService.Format.NDJSON, alice, null, null, null, out);
+
+        // More rows than one fetch and more bytes than one buffer, yet nothing is held back in one piece
+        assertThat(rows).isEqualTo(2500);
+        assertThat(out.writes).hasSizeGreaterThan(1).allMatch(size -> size <= 64 * 1024);
+        assertThat(out.buffer.toString(StandardCharsets.UTF_8).lines()).hasSize(2500);
+    }
+
+    private long insertUser(String username, String firstName, String lastName, LocalDateTime createdAt) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, password, email, first_name, last_name, enabled, created_at) " +
+                "VALUES (?, 'x', ?, ?, ?, true, ?) RETURNING id",
+                Long.class, username, username + "@example.com", firstName, lastName, createdAt);
+    }
+
+    private void insertActivity(long userId, String type, String description, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO user_activities (user_id, activity_type, description, timestamp) VALUES (?, ?, ?, ?)",
+                userId, type, description, timestamp);
+    }
+
+    private static class RecordingOutputStream extends OutputStream {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final List<Integer> writes = new ArrayList<>();
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            writes.add(len);
+            buffer.write(b, off, len);
+        }
+    }
+}
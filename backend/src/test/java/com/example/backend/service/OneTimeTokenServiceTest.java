@@ -0,0 +1,71 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.OneTimeToken;
+import com.example.backend.repository.OneTimeTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OneTimeTokenServiceTest {
+
+    private OneTimeTokenRepository tokenRepository;
+    private OneTimeTokenService tokenService;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        tokenRepository = mock(OneTimeTokenRepository.class);
+        tokenService = new OneTimeTokenService(tokenRepository, mock(PlatformTransactionManager.class), 1000);
+        tokenService.bindTo(registry);
+    }
+
+    @Test
+    void storesOnlyTheHashAndRedeemsOnce() {
+        String token = tokenService.issue(7L, OneTimeToken.Purpose.PASSWORD_RESET, Duration.ofHours(1));
+
+        ArgumentCaptor<OneTimeToken> saved = ArgumentCaptor.forClass(OneTimeToken.class);
+        verify(tokenRepository).deleteByUserIdAndPurpose(7L, OneTimeToken.Purpose.PASSWORD_RESET);
+        verify(tokenRepository).save(saved.capture());
+        assertThat(token).startsWith("r.");
+        assertThat(saved.getValue().getTokenHash()).hasSize(32);
+
+        OneTimeToken stored = saved.getValue();
+        stored.setId(1L);
+        when(tokenRepository.findByTokenHashAndPurpose(aryEq(stored.getTokenHash()), eq(OneTimeToken.Purpose.PASSWORD_RESET)))
+                .thenReturn(Optional.of(stored));
+        when(tokenRepository.deleteByIdReturningCount(1L)).thenReturn(1, 0);
+
+        assertThat(tokenService.peek(token, OneTimeToken.Purpose.PASSWORD_RESET)).contains(7L);
+        assertThat(tokenService.redeem(token, OneTimeToken.Purpose.PASSWORD_RESET)).contains(7L);
+        assertThat(tokenService.redeem(token, OneTimeToken.Purpose.PASSWORD_RESET)).isEmpty();
+        assertThat(registry.get("app.tokens.redeemed").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsMalformedMismatchedAndExpiredTokensWithoutAQuery() {
+        String reset = tokenService.issue(7L, OneTimeToken.Purpose.PASSWORD_RESET, Duration.ofHours(1));
+        String secret = reset.substring(reset.lastIndexOf('.') + 1);
+        String expired = "r." + Long.toString(Instant.now().minusSeconds(60).getEpochSecond(), 36) + "." + secret;
+
+        assertThat(tokenService.redeem(null, OneTimeToken.Purpose.PASSWORD_RESET)).isEmpty();
+        assertThat(tokenService.redeem("0f3c2a9e-6c1d-4b8e-9a53-2d7f1e4b6a10", OneTimeToken.Purpose.PASSWORD_RESET)).isEmpty();
+        assertThat(tokenService.redeem(reset + "x", OneTimeToken.Purpose.PASSWORD_RESET)).isEmpty();
+        assertThat(tokenService.redeem(reset.replace('.', '!'), OneTimeToken.Purpose.PASSWORD_RESET)).isEmpty();
+        assertThat(tokenService.peek(reset, OneTimeToken.Purpose.EMAIL_VERIFICATION)).isEmpty();
+        assertThat(tokenService.peek(expired, OneTimeToken.Purpose.PASSWORD_RESET)).isEmpty();
+
+        verify(tokenRepository, never()).findByTokenHashAndPurpose(any(), any());
+        assertThat(registry.get("app.tokens.rejected").tag("stage", "format").functionCounter().count()).isEqualTo(6);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Role;
+import com.example.backend.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RoleRegistryTest {
+
+    @Test
+    void resolvesRoleNamesWithoutFurtherQueries() {
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(
+                role(1L, Role.ERole.ROLE_USER),
+                role(2L, Role.ERole.ROLE_MODERATOR),
+                role(3L, Role.ERole.ROLE_ADMIN)));
+        RoleRegistry registry = new RoleRegistry(roleRepository);
+        registry.refresh();
+
+        assertThat(ids(registry.resolve(null))).containsExactly(1L);
+        assertThat(ids(registry.resolve(List.of("admin", "mod")))).containsExactlyInAnyOrder(3L, 2L);
+        assertThat(ids(registry.resolve(List.of("ROLE_ADMIN", "ROLE_MODERATOR", "ROLE_USER")))).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(ids(registry.resolve(List.of("superuser")))).containsExactly(1L);
+
+        verify(roleRepository, times(1)).findAll();
+        verify(roleRepository, never()).findByName(any());
+        verify(roleRepository, never()).save(any());
+    }
+
+    @Test
+    void createsRolesMissingFromTheTable() {
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, Role.ERole.ROLE_USER)));
+        when(roleRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        RoleRegistry registry = new RoleRegistry(roleRepository);
+        registry.refresh();
+
+        verify(roleRepository, times(2)).save(any());
+        assertThat(registry.get(Role.ERole.ROLE_ADMIN).getName()).isEqualTo(Role.ERole.ROLE_ADMIN);
+    }
+
+    private static Role role(Long id, Role.ERole name) {
+        Role role = new Role(name);
+        role.setId(id);
+        return role;
+    }
+
+    private static List<Long> ids(Set<Role> roles) {
+        return roles.stream().map(Role::getId).toList();
+    }
+}
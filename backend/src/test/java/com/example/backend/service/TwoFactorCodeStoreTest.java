@@ -0,0 +1,119 @@
+package com.example.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoFactorCodeStoreTest {
+
+    private final TestClock clock = new TestClock();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private TwoFactorCodeStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new TwoFactorCodeStore(Duration.ofMinutes(5), 3, 2, clock);
+        store.bindTo(registry);
+    }
+
+    @Test
+    void codeIsConsumedBySuccessfulVerification() {
+        store.put(1L, "123456");
+
+        assertThat(store.verify(1L, "123456")).isTrue();
+        assertThat(store.verify(1L, "123456")).isFalse();
+        assertThat(pending()).isZero();
+    }
+
+    @Test
+    void expiredCodesAreRejectedAndSweptAway() {
+        store.put(1L, "123456");
+        store.put(2L, "654321");
+        clock.advance(Duration.ofMinutes(5).plusMillis(1));
+
+        assertThat(store.verify(1L, "123456")).isFalse();
+        store.sweep();
+
+        assertThat(pending()).isZero();
+        assertThat(removed("expired")).isEqualTo(2);
+    }
+
+    @Test
+    void codeIsDiscardedOnceTheAttemptLimitIsUsedUp() {
+        store.put(1L, "123456");
+
+        assertThat(store.verify(1L, "000000")).isFalse();
+        assertThat(store.verify(1L, "000001")).isFalse();
+        assertThat(store.verify(1L, null)).isFalse();
+
+        assertThat(store.verify(1L, "123456")).isFalse();
+        assertThat(removed("locked_out")).isEqualTo(1);
+    }
+
+    @Test
+    void fullStoreEvictsTheCodeClosestToExpiry() {
+        store.put(1L, "111111");
+        clock.advance(Duration.ofMinutes(1));
+        store.put(2L, "222222");
+        store.put(3L, "333333");
+
+        assertThat(pending()).isEqualTo(2);
+        assertThat(removed("evicted")).isEqualTo(1);
+        assertThat(store.verify(1L, "111111")).isFalse();
+        assertThat(store.verify(2L, "222222")).isTrue();
+        assertThat(store.verify(3L, "333333")).isTrue();
+    }
+
+    @Test
+    void fullStorePrefersSweepingExpiredCodesOverEviction() {
+        store.put(1L, "111111");
+        clock.advance(Duration.ofMinutes(4));
+        store.put(2L, "222222");
+        clock.advance(Duration.ofMinutes(2));
+        store.put(3L, "333333");
+
+        assertThat(removed("expired")).isEqualTo(1);
+        assertThat(removed("evicted")).isZero();
+        assertThat(store.verify(2L, "222222")).isTrue();
+    }
+
+    private double pending() {
+        return registry.get("app.two-factor.codes.pending").gauge().value();
+    }
+
+    private double removed(String reason) {
+        return registry.get("app.two-factor.codes.removed").tag("reason", reason).functionCounter().count();
+    }
+
+    private static class TestClock extends Clock {
+
+        private Instant now = Instant.parse("2024-05-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.backend.service;
+
+import com.example.backend.payload.Cursor;
+import com.example.backend.payload.response.ActivityItem;
+import com.example.backend.payload.response.CursorPage;
+import com.example.backend.repository.UserActivityRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserActivityServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private UserActivityRepository repository;
+    private UserActivityService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserActivityRepository.class);
+        service = new UserActivityService(repository, mock(HttpServletRequest.class), mock(UserActivityWriter.class),
+                mock(ActivityStreamPublisher.class));
+    }
+
+    @Test
+    void readsOneExtraRowAndContinuesFromTheLastItem() {
+        List<UserActivityRepository.ActivityView> firstRows = rows(10, 7);
+        List<UserActivityRepository.ActivityView> lastRows = rows(7, 6);
+        when(repository.findFeedPage(7L, null, 4)).thenReturn(firstRows);
+
+        CursorPage<ActivityItem> first = service.getActivityFeed(7L, " ", null, 3);
+
+        assertThat(first.getItems()).extracting(ActivityItem::getId).containsExactly(10L, 9L, 8L);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(Cursor.decode(first.getNextCursor())).isEqualTo(new Cursor(NOW.minusMinutes(8), 8L));
+
+        when(repository.findFeedPageBefore(7L, "LOGIN", NOW.minusMinutes(8), 8L, 4)).thenReturn(lastRows);
+
+        CursorPage<ActivityItem> last = service.getActivityFeed(7L, "LOGIN", first.getNextCursor(), 3);
+
+        assertThat(last.getItems()).extracting(ActivityItem::getId).containsExactly(7L, 6L);
+        assertThat(last.isHasMore()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursorsWithoutAQuery() {
+        assertThatThrownBy(() -> service.getActivityFeed(7L, null, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(repository, never()).findFeedPageBefore(any(), any(), any(), any(), anyInt());
+    }
+
+    // Rows with ids from..to, newest first, one minute apart
+    private static List<UserActivityRepository.ActivityView> rows(long from, long to) {
+        return LongStream.iterate(from, id -> id >= to, id -> id - 1)
+                .mapToObj(UserActivityServiceTest::row)
+                .toList();
+    }
+
+    private static UserActivityRepository.ActivityView row(long id) {
+        UserActivityRepository.ActivityView row = mock(UserActivityRepository.ActivityView.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getActivityType()).thenReturn("LOGIN");
+        when(row.getTimestamp()).thenReturn(NOW.minusMinutes(id));
+        return row;
+    }
+}
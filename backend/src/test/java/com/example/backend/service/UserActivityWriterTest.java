@@ -0,0 +1,105 @@
+package com.example.backend.service;
+
+import com.example.backend.config.WorkerThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserActivityWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+    }
+
+    @Test
+    void dropPolicyDiscardsRecordsWhileTheQueueIsFull() {
+        UserActivityWriter writer = writer(2, UserActivityWriter.OverflowPolicy.DROP, 10);
+
+        assertThat(writer.submit(record(7L))).isTrue();
+        assertThat(writer.submit(record(7L))).isTrue();
+        assertThat(writer.submit(record(7L))).isFalse();
+
+        assertThat(records("accepted")).isEqualTo(2);
+        assertThat(records("dropped")).isEqualTo(1);
+        assertThat(registry.get("app.activity.queue.depth").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void blockPolicyGivesUpAfterTheTimeout() {
+        UserActivityWriter writer = writer(1, UserActivityWriter.OverflowPolicy.BLOCK, 10);
+        writer.submit(record(7L));
+
+        long start = System.nanoTime();
+        assertThat(writer.submit(record(7L))).isFalse();
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(20).toNanos());
+        assertThat(records("dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void samplePolicyOnlyThinsOutOnceTheQueueIsHalfFull() {
+        // With a sample rate this large every record past the half-way mark is dropped
+        UserActivityWriter writer = writer(4, UserActivityWriter.OverflowPolicy.SAMPLE, Integer.MAX_VALUE);
+
+        assertThat(writer.submit(record(7L))).isTrue();
+        assertThat(writer.submit(record(7L))).isTrue();
+        assertThat(writer.submit(record(7L))).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedBatchIsRetriedRowByRowAndOnlyTheBadRowIsLost() throws InterruptedException {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("user_activities_user_id_fkey"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            if (Long.valueOf(8L).equals(invocation.getArgument(1))) {
+                throw new DataIntegrityViolationException("user_activities_user_id_fkey");
+            }
+            return 1;
+        });
+        UserActivityWriter writer = writer(10, UserActivityWriter.OverflowPolicy.DROP, 10);
+        writer.submit(record(7L));
+        writer.submit(record(8L));
+        writer.submit(record(9L));
+
+        writer.start();
+        writer.stop();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyCollection(), eq(3), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, times(3)).update(anyString(), any(Object[].class));
+        assertThat(records("written")).isEqualTo(2);
+        assertThat(records("failed")).isEqualTo(1);
+        assertThat(registry.get("app.activity.write").tag("mode", "individual").timer().count()).isEqualTo(1);
+    }
+
+    private UserActivityWriter writer(int capacity, UserActivityWriter.OverflowPolicy policy, int sampleRate) {
+        UserActivityWriter writer = new UserActivityWriter(jdbcTemplate, new WorkerThreads(new MockEnvironment()),
+                capacity, 100, Duration.ofMillis(10), policy, Duration.ofMillis(20), sampleRate);
+        writer.bindTo(registry);
+        return writer;
+    }
+
+    private double records(String outcome) {
+        return registry.get("app.activity.records").tag("outcome", outcome).functionCounter().count();
+    }
+
+    private static UserActivityWriter.ActivityRecord record(Long userId) {
+        return new UserActivityWriter.ActivityRecord(userId, "LOGIN", "User logged in",
+                LocalDateTime.of(2024, 5, 1, 12, 0), "10.0.0.1", "JUnit");
+    }
+}
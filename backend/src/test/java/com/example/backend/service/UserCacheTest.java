@@ -0,0 +1,214 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.User;
+import com.example.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class UserCacheTest {
+
+    private UserRepository userRepository;
+    private UserCache userCache;
+    private final AtomicInteger serializations = new AtomicInteger();
+    private final Function<User, UserCache.Profile> serializer = user -> {
+        serializations.incrementAndGet();
+        return new UserCache.Profile(user.getEmail().getBytes(StandardCharsets.UTF_8), "\"" + user.getEmail() + "\"");
+    };
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userCache = new UserCache(userRepository, 100, Duration.ofMinutes(5), 3600);
+    }
+
+    @Test
+    void serializesTheProfileOncePerCachedRow() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user("old@example.com")));
+
+        assertThat(userCache.findProfile(7L, serializer).orElseThrow().etag()).isEqualTo("\"old@example.com\"");
+        assertThat(userCache.findProfile(7L, serializer).orElseThrow().json())
+                .isEqualTo("old@example.com".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(serializations).hasValue(1);
+        verify(userRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    void evictionDropsTheSerializedProfile() {
+        User before = user("old@example.com");
+        User after = user("new@example.com");
+        when(userRepository.findById(7L)).thenReturn(Optional.of(before), Optional.of(after));
+        userCache.findProfile(7L, serializer);
+
+        userCache.evict(7L);
+
+        assertThat(userCache.findProfile(7L, serializer).orElseThrow().etag()).isEqualTo("\"new@example.com\"");
+        assertThat(serializations).hasValue(2);
+    }
+
+    @Test
+    void unknownUsersHaveNoProfile() {
+        when(userRepository.findById(8L)).thenReturn(Optional.empty());
+
+        assertThat(userCache.findProfile(8L, serializer)).isEmpty();
+        assertThat(serializations).hasValue(0);
+    }
+
+    @Test
+    void exportsLookupsAndEvictionsAsMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        userCache.bindTo(registry);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user("old@example.com")));
+
+        userCache.findById(7L);
+        userCache.findById(7L);
+        userCache.evict(7L);
+
+        assertThat(registry.get("app.user-cache.lookups").tag("outcome", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("app.user-cache.lookups").tag("outcome", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("app.user-cache.evictions").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("app.user-cache.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() throws InterruptedException {
+        UserCache shortLived = new UserCache(userRepository, 100, Duration.ofMillis(1), 3600);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user("old@example.com")));
+
+        shortLived.findById(7L);
+        Thread.sleep(5);
+        shortLived.findById(7L);
+
+        verify(userRepository, times(2)).findById(7L);
+    }
+
+    @Test
+    void dropsTheLeastRecentlyUsedUserWhenFull() {
+        UserCache small = new UserCache(userRepository, 2, Duration.ofMinutes(5), 3600);
+        for (long id = 1; id <= 3; id++) {
+            when(userRepository.findById(id)).thenReturn(Optional.of(user(id, "user" + id)));
+        }
+
+        small.findById(1L);
+        small.findById(2L);
+        small.findById(1L);
+        small.findById(3L);
+
+        // 2 was used least recently, so it went; its username goes with it
+        small.findById(1L);
+        small.findById(3L);
+        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).findById(3L);
+        small.findByUsername("user2");
+        verify(userRepository).findByUsername("user2");
+    }
+
+    @Test
+    void usernameAndIdLookupsShareOneEntry() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user("old@example.com")));
+
+        userCache.findByUsername("alice");
+        userCache.findByUsername("alice");
+        userCache.findById(7L);
+
+        verify(userRepository, times(1)).findByUsername("alice");
+        verify(userRepository, never()).findById(7L);
+    }
+
+    @Test
+    void renameDropsTheOldUsername() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user(7L, "alice")));
+        when(userRepository.findByUsername("alicia")).thenReturn(Optional.of(user(7L, "alicia")));
+        userCache.findById(7L);
+
+        userCache.findByUsername("alicia");
+
+        assertThat(userCache.findByUsername("alice")).isEmpty();
+        verify(userRepository).findByUsername("alice");
+    }
+
+    @Test
+    void evictionDropsTheUsername() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user("old@example.com")));
+        userCache.findByUsername("alice");
+
+        userCache.evict(7L);
+        userCache.findByUsername("alice");
+
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void recordsWhenAUserWasLastModified() {
+        long before = System.currentTimeMillis();
+        assertThat(userCache.isModifiedSince(7L, before)).isFalse();
+
+        userCache.evict(7L);
+
+        assertThat(userCache.isModifiedSince(7L, before)).isTrue();
+        assertThat(userCache.isModifiedSince(7L, System.currentTimeMillis() + 1000)).isFalse();
+        assertThat(userCache.isModifiedSince(8L, before)).isFalse();
+    }
+
+    @Test
+    void rowReadBeforeAConcurrentEvictIsNotCached() {
+        // The write commits and evicts while this reader still holds the old row
+        when(userRepository.findById(7L)).thenAnswer(invocation -> {
+            userCache.evict(7L);
+            return Optional.of(user("old@example.com"));
+        }).thenReturn(Optional.of(user("new@example.com")));
+
+        userCache.findById(7L);
+
+        assertThat(userCache.findById(7L).orElseThrow().getEmail()).isEqualTo("new@example.com");
+        verify(userRepository, times(2)).findById(7L);
+    }
+
+    @Test
+    void evictionInsideATransactionIsRepeatedAfterCompletion() throws InterruptedException {
+        when(userRepository.findById(7L)).thenReturn(
+                Optional.of(user("old@example.com")), Optional.of(user("new@example.com")));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userCache.evict(7L);
+            // A reader re-caches the uncommitted change's old row before the writer commits
+            Thread.sleep(2);
+            userCache.findById(7L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(userCache.findById(7L).orElseThrow().getEmail()).isEqualTo("new@example.com");
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("alice");
+        user.setEmail(email);
+        return user;
+    }
+
+    private static User user(long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.backend.service;
+
+import com.example.backend.config.WorkerThreads;
+import com.example.backend.payload.response.BulkItemResult;
+import com.example.backend.payload.response.BulkResult;
+import com.example.backend.payload.response.ImportRowError;
+import com.example.backend.payload.response.ImportStatus;
+import com.example.backend.security.RegisterRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserImportServiceTest {
+
+    private static final String HASH = "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+    private BulkUserService bulkUserService;
+    private UserImportService importService;
+    private final List<List<String>> batches = new ArrayList<>();
+    private final List<String> hashes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        bulkUserService = mock(BulkUserService.class);
+        // Batches are reused after each flush, so record what each call saw
+        when(bulkUserService.importUsers(anyList(), any(), anySet(), anySet())).thenAnswer(invocation -> {
+            List<RegisterRequest> users = invocation.getArgument(0);
+            batches.add(users.stream().map(RegisterRequest::getUsername).toList());
+            hashes.addAll(Arrays.asList(invocation.<String[]>getArgument(1)));
+            List<BulkItemResult> items = new ArrayList<>();
+            int failed = 0;
+            for (int i = 0; i < users.size(); i++) {
+                if (users.get(i).getUsername().equals("erin")) {
+                    items.add(new BulkItemResult(i, null, BulkItemResult.Status.FAILED, "Username is already taken"));
+                    failed++;
+                } else {
+                    items.add(new BulkItemResult(i, 100L + i, BulkItemResult.Status.CREATED, null));
+                }
+            }
+            return new BulkResult(users.size() - failed, failed, items);
+        });
+        importService = new UserImportService(bulkUserService, new ObjectMapper(),
+                new WorkerThreads(new MockEnvironment()), 2, DataSize.ofMegabytes(1), 100, 2, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    void importsCsvInBatchesAndReportsRowErrorsByLine() throws Exception {
+        String csv = String.join("\r\n",
+                "username,email,passwordHash,password,firstName,roles",
+                "alice,alice@example.com,,secret1,\"Smith, \"\"Al\"\"\",admin;mod",
+                "bob,bob@example.com," + HASH + ",,Bob,",
+                "carol,carol@example.com,$2a$10$short,,Carol,",
+                "dave,dave@example.com," + HASH + ",secret1,\"Da",
+                "ve\",",
+                "erin,erin@example.com,,secret1,,",
+                "");
+
+        ImportStatus status = awaitFinished(importService.start(ExportService.Format.CSV, stream(csv)).getId());
+
+        assertThat(status.getState()).isEqualTo(ImportStatus.State.COMPLETED);
+        assertThat(status.getRowsRead()).isEqualTo(5);
+        assertThat(status.getCreated()).isEqualTo(2);
+        assertThat(status.getFailed()).isEqualTo(3);
+        assertThat(status.getErrors()).extracting(ImportRowError::getLine).containsExactly(4L, 5L, 7L);
+        assertThat(status.getErrors().get(0).getMessage()).isEqualTo("passwordHash: must be a BCrypt hash");
+        assertThat(status.getErrors().get(1).getMessage()).isEqualTo("Provide either password or passwordHash, not both");
+        assertThat(status.getErrors().get(2).getUsername()).isEqualTo("erin");
+
+        assertThat(batches).containsExactly(List.of("alice", "bob"), List.of("erin"));
+        assertThat(hashes).containsExactly(null, "{bcrypt}" + HASH, null);
+    }
+
+    @Test
+    void reportsMalformedNdjsonLinesAndKeepsGoing() throws Exception {
+        String ndjson = """
+                {"username":"alice","email":"alice@example.com","password":"secret1","roles":["admin"]}
+
+                {"username":"bob",
+                {"username":"erin","email":"erin@example.com","passwordHash":"{bcrypt}%s","source":"legacy"}
+                """.formatted(HASH);
+
+        ImportStatus status = awaitFinished(importService.start(ExportService.Format.NDJSON, stream(ndjson)).getId());
+
+        assertThat(status.getRowsRead()).isEqualTo(3);
+        assertThat(status.getErrors()).extracting(ImportRowError::getLine).containsExactly(3L, 4L);
+        assertThat(status.getErrors().get(0).getMessage()).startsWith("Invalid JSON");
+        assertThat(hashes).containsExactly(null, "{bcrypt}" + HASH);
+    }
+
+    private ImportStatus awaitFinished(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            ImportStatus status = importService.find(id, 0).orElseThrow();
+            if (status.getFinishedAt() != null) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Import did not finish");
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class UserSearchServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UserSearchService searchService;
+    private String sql;
+    private final List<Object> args = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            sql = invocation.getArgument(0);
+            Object[] raw = invocation.getRawArguments();
+            args.addAll(Arrays.asList((Object[]) raw[2]));
+            return List.of();
+        }).when(jdbcTemplate).query(anyString(), any(RowMapper.class), any(Object[].class));
+        searchService = new UserSearchService(jdbcTemplate);
+    }
+
+    @Test
+    void shortQueriesOnlyUsePrefixIndexes() {
+        searchService.search(" Jo ", null, null, 20);
+
+        assertThat(sql).doesNotContain("coalesce(u.first_name");
+        assertThat(args).containsExactly("jo%", "jo%", "jo", "jo%", "jo%", "jo%", "jo%", "jo", 20);
+    }
+
+    @Test
+    void longerQueriesAddEscapedSubstringMatchAndFilterEveryBranch() {
+        searchService.search("ann_", "admin", true, 5);
+
+        assertThat(sql).contains("coalesce(u.first_name");
+        assertThat(sql.split("AND u.enabled = \\?", -1)).hasSize(4);
+        assertThat(args).containsSubsequence("ann\\_%", true, "ROLE_ADMIN", "%ann\\_%", true, "ROLE_ADMIN");
+        assertThat(args.get(args.size() - 1)).isEqualTo(5);
+    }
+
+    @Test
+    void acceptsTheSameRoleNamesAsRegistration() {
+        assertThat(UserSearchService.parseRole("mod")).isEqualTo("ROLE_MODERATOR");
+        assertThat(UserSearchService.parseRole(" Moderator ")).isEqualTo("ROLE_MODERATOR");
+        assertThat(UserSearchService.parseRole("ROLE_ADMIN")).isEqualTo("ROLE_ADMIN");
+        assertThat(UserSearchService.parseRole("user")).isEqualTo("ROLE_USER");
+    }
+
+    @Test
+    void rejectsBlankQueriesAndUnknownRolesWithoutQuerying() {
+        assertThatThrownBy(() -> searchService.search("  ", null, null, 20)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> searchService.search("ann", "owner", null, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown role: owner");
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.UserDailyStats;
+import com.example.backend.repository.UserDailyStatsRepository;
+import com.example.backend.support.EmbeddedPostgresConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfiguration.class, UserStatsService.class})
+class UserStatsServiceTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private UserDailyStatsRepository userDailyStatsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long alice;
+    private long bob;
+    private long carol;
+
+    @BeforeEach
+    void setUp() {
+        // The startup backfill has already written a row for today
+        jdbcTemplate.update("DELETE FROM user_daily_stats");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS user_activities_p202405 PARTITION OF user_activities " +
+                "FOR VALUES FROM ('2024-05-01') TO ('2024-06-01')");
+        insertUser("early", MAY_1.minusDays(1).atTime(23, 0));
+        alice = insertUser("alice", MAY_1.atTime(9, 0));
+        bob = insertUser("bob", MAY_1.atTime(18, 0));
+        carol = insertUser("carol", MAY_1.plusDays(2).atTime(8, 0));
+
+        insertActivity(alice, "LOGIN", MAY_1.atTime(9, 5));
+        insertActivity(alice, "LOGIN", MAY_1.atTime(21, 0));
+        insertActivity(bob, "EMAIL_VERIFIED", MAY_1.atTime(18, 30));
+        insertActivity(carol, "LOGIN", MAY_1.plusDays(2).atTime(8, 5));
+    }
+
+    @Test
+    void rollupWritesOneRowPerDayWithRunningTotals() {
+        userDailyStatsRepository.rollup(MAY_1, MAY_1.plusDays(3));
+
+        assertThat(day(MAY_1)).extracting(UserDailyStats::getSignups, UserDailyStats::getVerifications,
+                        UserDailyStats::getLogins, UserDailyStats::getActiveUsers, UserDailyStats::getTotalUsers)
+                .containsExactly(2L, 1L, 2L, 2L, 3L);
+        // Days without any rows still get a row, carrying the total forward
+        assertThat(day(MAY_1.plusDays(1))).extracting(UserDailyStats::getSignups, UserDailyStats::getTotalUsers)
+                .containsExactly(0L, 3L);
+        assertThat(day(MAY_1.plusDays(2))).extracting(UserDailyStats::getSignups, UserDailyStats::getLogins,
+                        UserDailyStats::getTotalUsers)
+                .containsExactly(1L, 1L, 4L);
+    }
+
+    @Test
+    void rerunningTheRollupPicksUpLateWrites() {
+        userDailyStatsRepository.rollup(MAY_1, MAY_1.plusDays(3));
+        insertActivity(carol, "LOGIN", MAY_1.atTime(23, 59));
+
+        userDailyStatsRepository.rollup(MAY_1, MAY_1.plusDays(1));
+
+        assertThat(day(MAY_1).getLogins()).isEqualTo(3);
+        assertThat(day(MAY_1).getActiveUsers()).isEqualTo(3);
+        assertThat(userDailyStatsRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void refreshBackfillsFromTheFirstSignup() {
+        userStatsService.refresh();
+
+        assertThat(userDailyStatsRepository.findLatestDay()).contains(LocalDate.now());
+        assertThat(day(MAY_1.minusDays(1)).getTotalUsers()).isEqualTo(1);
+        assertThat(userStatsService.getLatest()).get().extracting(UserDailyStats::getTotalUsers).isEqualTo(4L);
+    }
+
+    @Test
+    void seriesAreBucketedByCalendarWeekAndMonth() {
+        userDailyStatsRepository.rollup(MAY_1.minusDays(1), MAY_1.plusDays(3));
+
+        List<UserDailyStatsRepository.BucketStats> days =
+                userStatsService.getSeries(MAY_1, MAY_1.plusDays(2), UserStatsService.Bucket.DAY);
+        // 2024-05-01 is a Wednesday, so April 30 and May 1-2 share the week of April 29
+        List<UserDailyStatsRepository.BucketStats> weeks =
+                userStatsService.getSeries(MAY_1.minusDays(1), MAY_1.plusDays(2), UserStatsService.Bucket.WEEK);
+        List<UserDailyStatsRepository.BucketStats> months =
+                userStatsService.getSeries(MAY_1.minusDays(1), MAY_1.plusDays(2), UserStatsService.Bucket.MONTH);
+
+        assertThat(days).extracting(UserDailyStatsRepository.BucketStats::getBucketStart)
+                .containsExactly(MAY_1, MAY_1.plusDays(1), MAY_1.plusDays(2));
+        assertThat(weeks).singleElement().satisfies(week -> {
+            assertThat(week.getBucketStart()).isEqualTo(LocalDate.of(2024, 4, 29));
+            assertThat(week.getSignups()).isEqualTo(4);
+            assertThat(week.getLogins()).isEqualTo(3);
+            assertThat(week.getVerifications()).isEqualTo(1);
+            assertThat(week.getPeakDailyActiveUsers()).isEqualTo(2);
+            assertThat(week.getTotalUsers()).isEqualTo(4);
+        });
+        assertThat(months).extracting(UserDailyStatsRepository.BucketStats::getBucketStart, UserDailyStatsRepository.BucketStats::getSignups)
+                .containsExactly(tuple(LocalDate.of(2024, 4, 1), 1L),
+                        tuple(MAY_1, 3L));
+    }
+
+    private UserDailyStats day(LocalDate day) {
+        return userDailyStatsRepository.findById(day).orElseThrow();
+    }
+
+    private long insertUser(String username, LocalDateTime createdAt) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, password, email, enabled, created_at) VALUES (?, 'x', ?, true, ?) RETURNING id",
+                Long.class, username, username + "@example.com", createdAt);
+    }
+
+    private void insertActivity(long userId, String type, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO user_activities (user_id, activity_type, description, timestamp) VALUES (?, ?, ?, ?)",
+                userId, type, type, timestamp);
+    }
+}
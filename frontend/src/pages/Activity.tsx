@@ -18,7 +18,9 @@ const Activity = () => {
   const [loading, setLoading] = useState(true)
   const [error, setError] = useState("")
   const [page, setPage] = useState(0)
-  const [totalPages, setTotalPages] = useState(0)
+  // cursors[n] is the cursor that loads page n; page 0 has none
+  const [cursors, setCursors] = useState<(string | null)[]>([null])
+  const [hasMore, setHasMore] = useState(false)
   const [filter, setFilter] = useState("")
 
   useEffect(() => {
@@ -29,17 +31,22 @@ const Activity = () => {
     setLoading(true)
     try {
       const params = new URLSearchParams({
-        page: page.toString(),
-        size: "10",
+        limit: "10",
       })
 
+      const cursor = cursors[page]
+      if (cursor) {
+        params.append("cursor", cursor)
+      }
+
       if (filter) {
         params.append("type", filter)
       }
 
       const response = await api.get(`/api/activities/me/all?${params.toString()}`)
-      setActivities(response.data.content)
-      setTotalPages(response.data.totalPages)
+      setActivities(response.data.items)
+      setHasMore(response.data.hasMore)
+      setCursors((previous) => [...previous.slice(0, page + 1), response.data.nextCursor])
     } catch (err) {
       console.error("Error fetching activities:", err)
       setError("Failed to load activities")
@@ -61,7 +68,7 @@ const Activity = () => {
           ipAddress: "192.168.1.1",
         },
       ])
-      setTotalPages(1)
+      setHasMore(false)
     } finally {
       setLoading(false)
     }
@@ -115,6 +122,7 @@ const Activity = () => {
             value={filter}
             onChange={(e) => {
               setFilter(e.target.value)
+              setCursors([null])
               setPage(0)
             }}
           >
@@ -165,7 +173,7 @@ const Activity = () => {
           </div>
         )}
 
-        {totalPages > 1 && (
+        {(page > 0 || hasMore) && (
           <div className="px-6 py-4 border-t border-gray-200 flex items-center justify-between">
             <button
               onClick={() => setPage(Math.max(0, page - 1))}
@@ -175,11 +183,11 @@ const Activity = () => {
               Previous
             </button>
             <span className="text-sm text-gray-700">
-              Page {page + 1} of {totalPages}
+              Page {page + 1}
             </span>
             <button
-              onClick={() => setPage(Math.min(totalPages - 1, page + 1))}
-              disabled={page === totalPages - 1}
+              onClick={() => setPage(page + 1)}
+              disabled={!hasMore}
               className="px-4 py-2 border border-gray-300 rounded-md text-sm font-medium text-gray-700 disabled:opacity-50"
             >
               Next
@@ -13,11 +13,18 @@ interface User {
   email: string
   firstName: string
   lastName: string
-  roles: { name: string }[]
+  // Role names such as "ROLE_ADMIN", as returned by the listing and by create/update
+  roles: string[]
   enabled: boolean
   emailVerified: boolean
 }
 
+interface UserPage {
+  items: User[]
+  nextCursor: string | null
+  hasMore: boolean
+}
+
 interface AdminStats {
   totalUsers: number
   activeUsers: number
@@ -29,13 +36,19 @@ interface AdminStats {
   }
 }
 
+// Users are listed one page at a time; further pages are fetched with "Load more"
+const USERS_PAGE_SIZE = 50
+
 const AdminDashboard = () => {
   const { user: currentUser } = useContext(AuthContext)
   const [users, setUsers] = useState<User[]>([])
   const [stats, setStats] = useState<AdminStats | null>(null)
   const [loading, setLoading] = useState(true)
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
+  const [loadingMore, setLoadingMore] = useState(false)
   const [error, setError] = useState("")
   const [searchTerm, setSearchTerm] = useState("")
+  const [searchResults, setSearchResults] = useState<User[] | null>(null)
   const [showDeleteModal, setShowDeleteModal] = useState(false)
   const [userToDelete, setUserToDelete] = useState<User | null>(null)
   const [showEditModal, setShowEditModal] = useState(false)
@@ -68,8 +81,10 @@ const AdminDashboard = () => {
   const fetchUsers = async () => {
     setLoading(true)
     try {
-      const response = await api.get("/api/admin/users")
-      setUsers(response.data)
+      const params = new URLSearchParams({ limit: String(USERS_PAGE_SIZE) })
+      const response = await api.get<UserPage>(`/api/admin/users?${params.toString()}`)
+      setUsers(response.data.items)
+      setNextCursor(response.data.nextCursor)
     } catch (err: any) {
       setError("Failed to fetch users")
       console.error(err)
@@ -78,6 +93,28 @@ const AdminDashboard = () => {
     }
   }
 
+  const loadMoreUsers = async () => {
+    if (!nextCursor) {
+      return
+    }
+    setLoadingMore(true)
+    try {
+      const params = new URLSearchParams({ limit: String(USERS_PAGE_SIZE), cursor: nextCursor })
+      const response = await api.get<UserPage>(`/api/admin/users?${params.toString()}`)
+      // Users created from this page were already appended locally
+      setUsers((loaded) => {
+        const loadedIds = new Set(loaded.map((user) => user.id))
+        return [...loaded, ...response.data.items.filter((user) => !loadedIds.has(user.id))]
+      })
+      setNextCursor(response.data.nextCursor)
+    } catch (err: any) {
+      setError("Failed to fetch users")
+      console.error(err)
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
   const fetchStats = async () => {
     try {
       const response = await api.get("/api/admin/stats")
@@ -87,14 +124,26 @@ const AdminDashboard = () => {
     }
   }
 
-  const filteredUsers = users.filter((user) => {
-    const searchLower = searchTerm.toLowerCase()
-    return (
-      user.username.toLowerCase().includes(searchLower) ||
-      user.email.toLowerCase().includes(searchLower) ||
-      `${user.firstName} ${user.lastName}`.toLowerCase().includes(searchLower)
-    )
-  })
+  // Searches run on the server against the search indexes, debounced while typing
+  useEffect(() => {
+    const query = searchTerm.trim()
+    if (!query) {
+      setSearchResults(null)
+      return
+    }
+    const timer = setTimeout(async () => {
+      try {
+        const params = new URLSearchParams({ q: query, limit: "100" })
+        const response = await api.get<User[]>(`/api/admin/users/search?${params.toString()}`)
+        setSearchResults(response.data)
+      } catch (err: any) {
+        console.error("Failed to search users:", err)
+      }
+    }, 250)
+    return () => clearTimeout(timer)
+  }, [searchTerm])
+
+  const filteredUsers = searchResults ?? users
 
   const handleDeleteClick = (user: User) => {
     setUserToDelete(user)
@@ -107,7 +156,7 @@ const AdminDashboard = () => {
       firstName: user.firstName || "",
       lastName: user.lastName || "",
       email: user.email,
-      roles: user.roles.map((role) => role.name),
+      roles: user.roles,
       enabled: user.enabled,
       emailVerified: user.emailVerified,
     })
@@ -133,6 +182,7 @@ const AdminDashboard = () => {
     try {
       await api.delete(`/api/admin/users/${userToDelete.id}`)
       setUsers(users.filter((user) => user.id !== userToDelete.id))
+      setSearchResults((results) => results && results.filter((user) => user.id !== userToDelete.id))
       setShowDeleteModal(false)
       setUserToDelete(null)
       fetchStats() // Refresh stats after deletion
@@ -148,6 +198,7 @@ const AdminDashboard = () => {
     try {
       const response = await api.put(`/api/admin/users/${userToEdit.id}`, editForm)
       setUsers(users.map((user) => (user.id === userToEdit.id ? response.data : user)))
+      setSearchResults((results) => results && results.map((user) => (user.id === userToEdit.id ? response.data : user)))
       setShowEditModal(false)
       setUserToEdit(null)
       fetchStats() // Refresh stats after update
@@ -337,7 +388,7 @@ const AdminDashboard = () => {
                       </div>
                     </td>
                     <td className="px-6 py-4 whitespace-nowrap text-sm text-gray-500">
-                      {user.roles.map((role) => role.name).join(", ")}
+                      {user.roles.join(", ")}
                     </td>
                     <td className="px-6 py-4 whitespace-nowrap text-right text-sm font-medium">
                       <button
@@ -364,6 +415,17 @@ const AdminDashboard = () => {
               </tbody>
             </table>
           </div>
+          {!searchResults && nextCursor && (
+            <div className="px-6 py-4 border-t border-gray-200 text-center">
+              <button
+                onClick={loadMoreUsers}
+                disabled={loadingMore}
+                className="inline-flex items-center px-4 py-2 border border-gray-300 text-sm font-medium rounded-md text-gray-700 bg-white hover:bg-gray-50 disabled:opacity-50 focus:outline-none focus:ring-2 focus:ring-offset-2 focus:ring-blue-500"
+              >
+                {loadingMore ? "Loading..." : "Load more"}
+              </button>
+            </div>
+          )}
         </div>
       ) : (
         <div className="space-y-6">